@@ -0,0 +1,352 @@
+package functional.tests.core.appium;
+
+import functional.tests.core.exceptions.AppiumException;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.FileSystem;
+import functional.tests.core.utils.OSUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appium server that outlives test run and is reused by next runs.
+ * Port, PID and arguments of the server are stored in ~/.functional-tests/appium-daemon.properties.
+ * Next runs attach to the server if it responds to status request and was started with the same arguments,
+ * otherwise the server is killed and new one is started.
+ * Server is started by shell script that stops it when lock file is not touched for appiumServerIdleTimeout minutes
+ * (attached runs touch it every minute).
+ * Notes: Not supported on Windows.
+ */
+public class AppiumServerDaemon {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("AppiumServerDaemon");
+    private static final String LOCK_FILE = Settings.FRAMEWORK_HOME_DIR + File.separator + "appium-daemon.properties";
+    private static final String MUTEX_FILE = Settings.FRAMEWORK_HOME_DIR + File.separator + "appium-daemon.lock";
+    private static final String LOG_FILE = Settings.FRAMEWORK_HOME_DIR + File.separator + "appium-daemon.log";
+    private static final String SCRIPT_FILE = Settings.FRAMEWORK_HOME_DIR + File.separator + "appium-daemon.sh";
+    private static final int START_TIMEOUT = 60;
+    private static final int HEALTH_CHECK_TIMEOUT = 3000;
+    private static final int KEEP_ALIVE_PERIOD = 60;
+
+    // Start appium in background, print its PID and stop it when lock file is deleted or not touched in time.
+    private static final String SCRIPT = "#!/bin/sh\n"
+            + "LOCK=\"$1\"; IDLE=\"$2\"; LOG=\"$3\"; shift 3\n"
+            + "nohup \"$@\" > \"$LOG\" 2>&1 &\n"
+            + "PID=$!\n"
+            + "echo $PID\n"
+            + "(\n"
+            + "  while kill -0 $PID 2>/dev/null; do\n"
+            + "    sleep 60\n"
+            + "    if [ ! -f \"$LOCK\" ] || [ -n \"$(find \"$LOCK\" -mmin +$IDLE)\" ]; then\n"
+            + "      kill $PID\n"
+            + "    fi\n"
+            + "  done\n"
+            + ") > /dev/null 2>&1 &\n";
+
+    private final Settings settings;
+    private final File appiumExecutable;
+    private ScheduledExecutorService keepAlive;
+    private URL url;
+
+    /**
+     * Init Appium server daemon.
+     *
+     * @param settings         Settings.
+     * @param appiumExecutable Appium executable.
+     */
+    public AppiumServerDaemon(Settings settings, File appiumExecutable) {
+        this.settings = settings;
+        this.appiumExecutable = appiumExecutable;
+    }
+
+    /**
+     * Attach to running server or start new one.
+     *
+     * @return Url of the server.
+     * @throws AppiumException When fail to start server.
+     */
+    public URL attach() throws AppiumException {
+        FileSystem.ensureFolderExists(Settings.FRAMEWORK_HOME_DIR);
+        // Threads of this JVM and other JVMs should not start server at the same time.
+        synchronized (AppiumServerDaemon.class) {
+            try (RandomAccessFile mutex = new RandomAccessFile(MUTEX_FILE, "rw");
+                 FileChannel channel = mutex.getChannel()) {
+                FileLock lock = channel.lock();
+                try {
+                    this.url = this.attachOrStart();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new AppiumException("Failed to start appium server daemon: " + e.getMessage());
+            }
+        }
+
+        this.startKeepAlive();
+        return this.url;
+    }
+
+    /**
+     * Detach from server (server is not stopped).
+     */
+    public void detach() {
+        if (this.keepAlive != null) {
+            this.keepAlive.shutdownNow();
+            this.keepAlive = null;
+        }
+        this.touch();
+        LOGGER_BASE.info("Detached from appium server daemon.");
+    }
+
+    /**
+     * Check if server responds to status request.
+     *
+     * @return True if server is healthy.
+     */
+    public boolean isHealthy() {
+        return this.url != null && AppiumServerDaemon.isHealthy(this.url);
+    }
+
+    /**
+     * Get url of the server.
+     *
+     * @return Url (null if not attached).
+     */
+    public URL getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Get path to log file of server daemon.
+     *
+     * @return Path to log file.
+     */
+    public static String getLogFile() {
+        return LOG_FILE;
+    }
+
+    /**
+     * Attach to server from lock file (if it is healthy and has the same arguments) or start new one.
+     *
+     * @return Url of the server.
+     * @throws IOException     When fail to read or write lock file.
+     * @throws AppiumException When fail to start server.
+     */
+    private URL attachOrStart() throws IOException, AppiumException {
+        String args = this.getArguments();
+        String fingerprint = args + " " + this.appiumExecutable.lastModified();
+        Properties lock = AppiumServerDaemon.readLock();
+        if (lock != null) {
+            URL daemonUrl = AppiumServerDaemon.getUrl(lock.getProperty("port"));
+            String pid = lock.getProperty("pid");
+            if (!fingerprint.equals(lock.getProperty("args"))) {
+                LOGGER_BASE.info("Appium server daemon (pid " + pid + ") is started with different arguments. Restart it.");
+            } else if (!AppiumServerDaemon.isHealthy(daemonUrl)) {
+                LOGGER_BASE.info("Appium server daemon (pid " + pid + ") does not respond. Restart it.");
+            } else {
+                this.touch();
+                LOGGER_BASE.info("Attached to appium server daemon at " + daemonUrl + " (pid " + pid + ").");
+                return daemonUrl;
+            }
+            AppiumServerDaemon.kill(pid);
+            FileSystem.deletePath(LOCK_FILE);
+        }
+
+        return this.start(args, fingerprint);
+    }
+
+    /**
+     * Start new server and write lock file.
+     *
+     * @param args        Arguments of appium.
+     * @param fingerprint Arguments and version of appium (stored in lock file).
+     * @return Url of the server.
+     * @throws IOException     When fail to write lock file or script.
+     * @throws AppiumException When server does not respond in time.
+     */
+    private URL start(String args, String fingerprint) throws IOException, AppiumException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        FileSystem.writeFile(SCRIPT_FILE, SCRIPT);
+        // Lock file should exist before server starts, otherwise script stops it.
+        Properties lock = new Properties();
+        lock.setProperty("port", String.valueOf(port));
+        lock.setProperty("args", fingerprint);
+        AppiumServerDaemon.writeLock(lock);
+
+        String command = "sh \"" + SCRIPT_FILE + "\" \"" + LOCK_FILE + "\" " + this.settings.appiumServerIdleTimeout
+                + " \"" + LOG_FILE + "\" " + args + " --port " + port;
+        LOGGER_BASE.info("Starting appium server daemon on port " + port + "...");
+        String pid = OSUtils.runProcess(30, command).trim();
+        lock.setProperty("pid", pid);
+        AppiumServerDaemon.writeLock(lock);
+
+        URL daemonUrl = AppiumServerDaemon.getUrl(String.valueOf(port));
+        long endTime = System.currentTimeMillis() + START_TIMEOUT * 1000L;
+        while (!AppiumServerDaemon.isHealthy(daemonUrl)) {
+            if (System.currentTimeMillis() > endTime) {
+                AppiumServerDaemon.kill(pid);
+                FileSystem.deletePath(LOCK_FILE);
+                String error = "Appium server daemon does not respond in " + START_TIMEOUT + " seconds. See " + LOG_FILE;
+                LOGGER_BASE.fatal(error);
+                throw new AppiumException(error);
+            }
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AppiumException("Interrupted while starting appium server daemon.");
+            }
+        }
+
+        LOGGER_BASE.info("Appium server daemon is up and running at " + daemonUrl + " (pid " + pid + ").");
+        return daemonUrl;
+    }
+
+    /**
+     * Get appium command (server is restarted when it is changed or appium executable is updated).
+     *
+     * @return Arguments.
+     */
+    private String getArguments() {
+        String args = "\"" + this.appiumExecutable.getAbsolutePath() + "\"";
+        if (this.settings.appiumLogLevel != null) {
+            args += " --log-level " + this.settings.appiumLogLevel;
+        }
+        return args;
+    }
+
+    /**
+     * Touch lock file periodically, so idle server is not stopped while it is in use.
+     */
+    private void startKeepAlive() {
+        if (this.keepAlive != null) {
+            return;
+        }
+        this.keepAlive = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "appium-daemon-keep-alive");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.keepAlive.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                AppiumServerDaemon.this.touch();
+            }
+        }, KEEP_ALIVE_PERIOD, KEEP_ALIVE_PERIOD, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Mark server as used now.
+     */
+    private void touch() {
+        File lock = new File(LOCK_FILE);
+        if (lock.exists() && !lock.setLastModified(System.currentTimeMillis())) {
+            LOGGER_BASE.debug("Failed to touch " + LOCK_FILE);
+        }
+    }
+
+    /**
+     * Check if server responds to status request.
+     *
+     * @param url Url of server.
+     * @return True if server is healthy.
+     */
+    private static boolean isHealthy(URL url) {
+        if (url == null) {
+            return false;
+        }
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url + "/status").openConnection();
+            connection.setConnectTimeout(HEALTH_CHECK_TIMEOUT);
+            connection.setReadTimeout(HEALTH_CHECK_TIMEOUT);
+            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Get url of server.
+     *
+     * @param port Port of server.
+     * @return Url (null if port is not valid).
+     */
+    private static URL getUrl(String port) {
+        try {
+            return new URL("http://127.0.0.1:" + Integer.parseInt(port.trim()) + "/wd/hub");
+        } catch (NumberFormatException | NullPointerException | MalformedURLException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Kill server process.
+     *
+     * @param pid PID of process.
+     */
+    private static void kill(String pid) {
+        if (pid != null && pid.trim().matches("\\d+")) {
+            OSUtils.runProcess("kill " + pid.trim());
+        }
+    }
+
+    /**
+     * Read lock file.
+     *
+     * @return Properties of running server (null if lock file does not exist).
+     */
+    private static Properties readLock() {
+        File file = new File(LOCK_FILE);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties lock = new Properties();
+        try (InputStream input = new FileInputStream(file)) {
+            lock.load(input);
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to read " + LOCK_FILE + ": " + e.getMessage());
+        }
+        return lock;
+    }
+
+    /**
+     * Write lock file.
+     *
+     * @param lock Properties of running server.
+     * @throws IOException When fail to write lock file.
+     */
+    private static void writeLock(Properties lock) throws IOException {
+        try (OutputStream output = new FileOutputStream(LOCK_FILE)) {
+            lock.store(output, "Appium server daemon");
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package functional.tests.core.appium;
 
-import functional.tests.core.device.IDevice;
 import functional.tests.core.enums.PlatformType;
-import functional.tests.core.find.Wait;
+import functional.tests.core.find.PageSnapshot;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.DesiredCapabilities;
 
 import java.util.concurrent.TimeUnit;
@@ -22,6 +22,12 @@ public class Client {
     public Server server;
     public Settings settings;
     public AppiumDriver<?> driver;
+    public DriverHealthMonitor health;
+    public PageSnapshot snapshot;
+
+    private DesiredCapabilities capabilities;
+    private int implicitWait = -1;
+    private volatile boolean rectUnsupported;
 
     /**
      * Initialize Appium client object.
@@ -32,26 +38,41 @@ public class Client {
     public Client(Server server, Settings settings) {
         this.server = server;
         this.settings = settings;
+        this.health = new DriverHealthMonitor(settings.driverHeartbeat);
+        this.snapshot = new PageSnapshot(this, settings);
     }
 
     /**
      * Get current Appium driver.
      *
      * @return Current Appium driver.
+     * @throws org.openqa.selenium.WebDriverException When session is dead (see DriverHealthMonitor).
      */
     public AppiumDriver<?> getDriver() {
+        this.health.check();
         return this.driver;
     }
 
+    /**
+     * Check if session is alive (according to last heartbeat).
+     *
+     * @return True if session is alive.
+     */
+    public boolean isHealthy() {
+        return this.driver != null && !this.health.isTripped();
+    }
+
     /**
      * Start Appium driver.
      */
     public void initDriver() {
 
         LOGGER_BASE.info("Start appium client ...");
+        this.snapshot.invalidate();
+        this.rectUnsupported = false;
 
         // Verify service
-        if (this.server.service == null || !this.server.service.isRunning()) {
+        if (!this.server.isRunning()) {
             String error = "Appium server not running!";
             LOGGER_BASE.fatal(error);
             throw new RuntimeException(error);
@@ -60,13 +81,41 @@ public class Client {
         // Load capabilities
         Capabilities capabilitiesLoader = new Capabilities();
 
-        IDevice device = null;
+        if (this.settings.platform == PlatformType.Andorid) {
+            this.capabilities = capabilitiesLoader.loadAndroidCapabilities(this.settings);
+        } else if (this.settings.platform == PlatformType.iOS) {
+            this.capabilities = capabilitiesLoader.loadIOSCapabilities(this.settings);
+        }
+
+        // Reuse idle session with the same capabilities
+        if (this.settings.reuseSession && this.capabilities != null) {
+            this.driver = SessionPool.acquire(this.server, this.capabilities, this.settings.platform,
+                    this.snapshot.getHttpClientFactory(this.health.getHttpClientFactory()));
+            if (this.driver != null && this.settings.reuseSessionResetApp) {
+                // Reset only state of app under test
+                try {
+                    this.driver.resetApp();
+                } catch (WebDriverException e) {
+                    LOGGER_BASE.error("Failed to reset app in appium session " + this.driver.getSessionId() + ", start new session: " + e.getMessage());
+                    this.quitDriver();
+                }
+            }
+            if (this.driver != null) {
+                LOGGER_BASE.info("Reuse appium session " + this.driver.getSessionId() + ".");
+                this.implicitWait = -1;
+                this.setImplicitWait(0);
+                this.health.start(this.server.getUrl(), this.driver.getSessionId());
+                LOGGER_BASE.info("appium client started.");
+                return;
+            }
+        }
+
         // Start AndroidDriver
         if (this.settings.platform == PlatformType.Andorid) {
-            DesiredCapabilities capabilities = capabilitiesLoader.loadAndroidCapabilities(this.settings);
+            DesiredCapabilities capabilities = this.capabilities;
             LOGGER_BASE.info(capabilities.toString());
             try {
-                this.driver = new AndroidDriver<>(this.server.service.getUrl(), capabilities);
+                this.driver = new AndroidDriver<>(this.server.getUrl(), this.snapshot.getHttpClientFactory(this.health.getHttpClientFactory()), capabilities);
             } catch (Exception e) {
                 LOGGER_BASE.fatal(e.getMessage());
                 throw e;
@@ -75,10 +124,10 @@ public class Client {
 
         // Start IOSDriver
         if (this.settings.platform == PlatformType.iOS) {
-            DesiredCapabilities capabilities = capabilitiesLoader.loadIOSCapabilities(this.settings);
+            DesiredCapabilities capabilities = this.capabilities;
             LOGGER_BASE.info(capabilities.toString());
             try {
-                this.driver = new IOSDriver<>(this.server.service.getUrl(), capabilities);
+                this.driver = new IOSDriver<>(this.server.getUrl(), this.snapshot.getHttpClientFactory(this.health.getHttpClientFactory()), capabilities);
             } catch (Exception e) {
                 LOGGER_BASE.fatal(e.getMessage());
                 throw e;
@@ -87,7 +136,10 @@ public class Client {
 
         // Set default timeout
         if (this.driver != null) {
-            this.driver.manage().timeouts().implicitlyWait(this.settings.defaultTimeout, TimeUnit.SECONDS);
+            // Waits are done on client side (see WaitEngine).
+            this.implicitWait = -1;
+            this.setImplicitWait(0);
+            this.health.start(this.server.getUrl(), this.driver.getSessionId());
             LOGGER_BASE.info("appium client started.");
         } else {
             String error = "Appium client failed to start!";
@@ -98,32 +150,99 @@ public class Client {
 
     /**
      * Stop Appium driver.
+     * If reuseSession is true, live session is kept for reuse (see SessionPool).
      */
     public void stopDriver() {
+        this.stopDriver(false);
+    }
 
-        LOGGER_BASE.info("Stop appium client ...");
+    /**
+     * Stop Appium driver.
+     * If reuseSession is true and session is not discarded, live session is kept for reuse (see SessionPool).
+     *
+     * @param discard If true session is closed even if reuseSession is true (for example when session is restarted).
+     */
+    public void stopDriver(boolean discard) {
 
-        if (this.driver != null) {
-            try {
-                this.driver.quit();
-                LOGGER_BASE.info("appium client stopped.");
-            } catch (Exception e) {
-                LOGGER_BASE.fatal("Failed to stop appium client!");
-            }
+        LOGGER_BASE.info("Stop appium client ...");
+        this.health.stop();
+
+        if (this.driver != null && this.health.isTripped()) {
+            LOGGER_BASE.info("appium session is dead.");
+            this.driver = null;
+        } else if (this.driver != null && !discard && this.settings.reuseSession && SessionPool.isAlive(this.driver)) {
+            SessionPool.release(this.server, this.capabilities, this.driver);
+            this.driver = null;
+        } else if (this.driver != null) {
+            this.quitDriver();
         } else {
             LOGGER_BASE.info("appium client already stopped.");
         }
     }
 
+    /**
+     * Quit Appium session.
+     * Connections of the session are closed (session kept for reuse keeps them until next initDriver()).
+     */
+    private void quitDriver() {
+        try {
+            this.driver.quit();
+            LOGGER_BASE.info("appium client stopped.");
+        } catch (Exception e) {
+            LOGGER_BASE.fatal("Failed to stop appium client!");
+        }
+        this.driver = null;
+        this.health.closeConnections();
+    }
+
+    /**
+     * Check if session supports element rect command (see UIElement).
+     *
+     * @return False if server reported rect command as unknown or not implemented.
+     */
+    public boolean isRectSupported() {
+        return !this.rectUnsupported;
+    }
+
+    /**
+     * Mark element rect command as not supported by current session (reset when driver is started).
+     */
+    public void setRectUnsupported() {
+        this.rectUnsupported = true;
+    }
+
     /**
      * Set implicit wait in seconds.
+     * Notes: Find and Wait do not depend on implicit wait, it is 0 while they poll and restored after (see WaitEngine).
      *
-     * @param seconds
+     * @param seconds Implicit wait in seconds.
      */
     public void setWait(int seconds) {
-        this.driver.manage().timeouts().implicitlyWait(seconds, TimeUnit.SECONDS);
-        // When call very fast setWait and find sometimes server first receive find command and then setWait command.
-        // Hope this hack will make the framework more stable.
-        Wait.sleep(250);
+        this.setImplicitWait(seconds);
+    }
+
+    /**
+     * Set implicit wait of session to 0 (waits are done on client side, see WaitEngine).
+     * Restore returned value with setImplicitWait() when done, so implicit wait set with setWait() is kept.
+     *
+     * @return Implicit wait in seconds before the call.
+     */
+    public int suspendImplicitWait() {
+        int previous = this.implicitWait;
+        this.setImplicitWait(0);
+        return previous < 0 ? 0 : previous;
+    }
+
+    /**
+     * Set implicit wait of session (command is sent only if value is changed).
+     *
+     * @param seconds Implicit wait in seconds.
+     */
+    public void setImplicitWait(int seconds) {
+        this.health.check();
+        if (this.implicitWait != seconds) {
+            this.driver.manage().timeouts().implicitlyWait(seconds, TimeUnit.SECONDS);
+            this.implicitWait = seconds;
+        }
     }
 }
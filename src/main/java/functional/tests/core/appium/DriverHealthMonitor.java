@@ -0,0 +1,291 @@
+package functional.tests.core.appium;
+
+import functional.tests.core.log.LoggerBase;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.internal.ApacheHttpClient;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Health monitor and circuit breaker of Appium session.
+ * Heartbeat checks server status and session in background, after consecutive failures circuit is opened:
+ * pending commands (waiting for server response) and new commands fail immediately instead of waiting for timeouts.
+ * Commands are executed on caller thread, pending commands are aborted by closing connections of the session.
+ * Session is pinged only when there is no pending command (Appium executes commands of session one by one),
+ * ping that is not answered in time counts as failure.
+ * Circuit is closed when new session is started (see Client.initDriver).
+ */
+public class DriverHealthMonitor {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("DriverHealthMonitor");
+    private static final int MAX_FAILURES = 2;
+    private static final int STATUS_TIMEOUT = 3000;
+    private static final int SESSION_TIMEOUT = 10000;
+    private static final int CONNECT_TIMEOUT = 120000;
+    private static final int COMMAND_TIMEOUT = 3 * 60 * 60 * 1000;
+    private static final int MAX_CONNECTIONS = 100;
+
+    private final int interval;
+    private final AtomicInteger pendingCommands;
+    private final List<PoolingHttpClientConnectionManager> connections;
+    private ScheduledExecutorService heartbeat;
+    private volatile String tripReason;
+    private URL serverUrl;
+    private SessionId sessionId;
+    private int failures;
+
+    /**
+     * Init health monitor.
+     *
+     * @param interval Heartbeat interval in seconds (0 to disable heartbeat).
+     */
+    public DriverHealthMonitor(int interval) {
+        this.interval = interval;
+        this.pendingCommands = new AtomicInteger();
+        this.connections = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Get factory of http clients for Appium driver.
+     * Commands sent via those clients fail immediately when circuit is open.
+     * Clients of factory share own connection pool (closed when circuit is opened, new factory is created
+     * or session is quit, see closeConnections()).
+     *
+     * @return Http client factory.
+     */
+    public HttpClient.Factory getHttpClientFactory() {
+        this.closeConnections();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(MAX_CONNECTIONS);
+        connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS);
+        this.connections.add(connectionManager);
+        final CloseableHttpClient httpClient = HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectTimeout(CONNECT_TIMEOUT)
+                        .setSocketTimeout(COMMAND_TIMEOUT)
+                        .build())
+                .build();
+        return new HttpClient.Factory() {
+            @Override
+            public HttpClient createClient(URL url) {
+                return new MonitoredHttpClient(new ApacheHttpClient(httpClient, url));
+            }
+        };
+    }
+
+    /**
+     * Start heartbeat for session (circuit is closed).
+     *
+     * @param url     Url of Appium server.
+     * @param session Id of session.
+     */
+    public synchronized void start(URL url, SessionId session) {
+        this.stop();
+        this.serverUrl = url;
+        this.sessionId = session;
+        this.failures = 0;
+        this.tripReason = null;
+        if (this.interval <= 0) {
+            return;
+        }
+
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(DriverHealthMonitor.daemonThreads("appium-heartbeat"));
+        this.heartbeat.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                DriverHealthMonitor.this.beat();
+            }
+        }, this.interval, this.interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stop heartbeat.
+     */
+    public synchronized void stop() {
+        if (this.heartbeat != null) {
+            this.heartbeat.shutdownNow();
+            this.heartbeat = null;
+        }
+    }
+
+    /**
+     * Check if circuit is open (session is dead).
+     *
+     * @return True if session is dead.
+     */
+    public boolean isTripped() {
+        return this.tripReason != null;
+    }
+
+    /**
+     * Fail if circuit is open.
+     *
+     * @throws WebDriverException When session is dead.
+     */
+    public void check() {
+        String reason = this.tripReason;
+        if (reason != null) {
+            throw new WebDriverException("Appium session is dead (" + reason + ").");
+        }
+    }
+
+    /**
+     * Open circuit, so all pending and new commands fail.
+     * Connections of clients created before are closed (pending commands do not wait for response).
+     *
+     * @param reason Reason.
+     */
+    public void trip(String reason) {
+        if (this.tripReason == null) {
+            LOGGER_BASE.error("Appium session is dead (" + reason + "). Fail all commands until session is restarted.");
+        }
+        this.tripReason = reason;
+        this.closeConnections();
+    }
+
+    /**
+     * Close connection pools of clients created before (pending and new commands of those clients fail).
+     */
+    public void closeConnections() {
+        for (PoolingHttpClientConnectionManager connectionManager : this.connections) {
+            connectionManager.shutdown();
+            this.connections.remove(connectionManager);
+        }
+    }
+
+    /**
+     * Check server status and session (open circuit after consecutive failures).
+     */
+    private synchronized void beat() {
+        if (this.isTripped()) {
+            return;
+        }
+
+        String error = null;
+        if (DriverHealthMonitor.ping(this.serverUrl + "/status", STATUS_TIMEOUT) != HttpURLConnection.HTTP_OK) {
+            error = "server does not respond";
+        } else if (this.pendingCommands.get() == 0) {
+            int code = DriverHealthMonitor.ping(this.serverUrl + "/session/" + this.sessionId, SESSION_TIMEOUT);
+            if (code == -1 && this.pendingCommands.get() == 0) {
+                // Ping waits behind command that started meanwhile, so only timeout of idle session counts.
+                error = "session " + this.sessionId + " does not respond in " + SESSION_TIMEOUT + " ms";
+            } else if (code != HttpURLConnection.HTTP_OK && code != -1) {
+                error = "session " + this.sessionId + " does not exist";
+            }
+        }
+
+        if (error == null) {
+            this.failures = 0;
+        } else if (++this.failures >= MAX_FAILURES) {
+            this.trip(error);
+        } else {
+            LOGGER_BASE.debug("Heartbeat failed: " + error);
+        }
+    }
+
+    /**
+     * Send GET request.
+     *
+     * @param url     Url.
+     * @param timeOut Connect and read timeout in milliseconds.
+     * @return Response code (0 if server is not reachable, -1 if response is not received in time).
+     */
+    private static int ping(String url, int timeOut) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(timeOut);
+            connection.setReadTimeout(timeOut);
+            return connection.getResponseCode();
+        } catch (SocketTimeoutException e) {
+            return -1;
+        } catch (IOException e) {
+            return 0;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Create factory of daemon threads.
+     *
+     * @param name Name of threads.
+     * @return Thread factory.
+     */
+    private static ThreadFactory daemonThreads(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * Http client that fails commands when circuit is opened.
+     * Command is executed on caller thread, pending command fails when connections are closed (see trip()).
+     */
+    private class MonitoredHttpClient implements HttpClient {
+
+        private final HttpClient client;
+
+        /**
+         * Init client.
+         *
+         * @param client Client that executes requests.
+         */
+        MonitoredHttpClient(HttpClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request, boolean followRedirects) throws IOException {
+            DriverHealthMonitor monitor = DriverHealthMonitor.this;
+            if (monitor.isTripped()) {
+                throw new IOException("Appium session is dead (" + monitor.tripReason + ").");
+            }
+
+            monitor.pendingCommands.incrementAndGet();
+            try {
+                return this.client.execute(request, followRedirects);
+            } catch (IOException | IllegalStateException e) {
+                // Connection pool is shut down when circuit is opened.
+                if (monitor.isTripped()) {
+                    throw new IOException("Appium session is dead (" + monitor.tripReason + ").");
+                }
+                throw e;
+            } finally {
+                monitor.pendingCommands.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.client.close();
+        }
+    }
+}
@@ -5,6 +5,7 @@ import functional.tests.core.enums.PlatformType;
 import functional.tests.core.exceptions.AppiumException;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.HostEnvironment;
 import functional.tests.core.utils.OSUtils;
 import io.appium.java_client.service.local.AppiumDriverLocalService;
 import io.appium.java_client.service.local.AppiumServiceBuilder;
@@ -12,6 +13,7 @@ import io.appium.java_client.service.local.flags.GeneralServerFlag;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URL;
 import java.nio.file.Files;
 import java.util.concurrent.TimeUnit;
 
@@ -21,6 +23,8 @@ import java.util.concurrent.TimeUnit;
 public class Server {
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("Server");
     private Settings settings;
+    private String logFilePath;
+    private AppiumServerDaemon daemon;
 
     public AppiumDriverLocalService service;
 
@@ -30,7 +34,18 @@ public class Server {
      * @param settings Settings.
      */
     public Server(Settings settings) {
+        this(settings, settings.appiumLogFile);
+    }
+
+    /**
+     * Init Appium Server object.
+     *
+     * @param settings Settings.
+     * @param logFile  Path to Appium server log file.
+     */
+    public Server(Settings settings, String logFile) {
         this.settings = settings;
+        this.logFilePath = logFile;
     }
 
     /**
@@ -56,6 +71,13 @@ public class Server {
         // Get Appium executable path
         File appiumExecutable = this.getAppiumExecutable();
 
+        // Attach to (or start) Appium server shared with other test runs
+        if (this.usesDaemon()) {
+            this.daemon = new AppiumServerDaemon(this.settings, appiumExecutable);
+            this.daemon.attach();
+            return;
+        }
+
         // Init AppiumServiceBuilder
         AppiumServiceBuilder serviceBuilder = new AppiumServiceBuilder()
                 .withLogFile(logFile)
@@ -87,11 +109,81 @@ public class Server {
         }
     }
 
+    /**
+     * Check if Appium server is running.
+     *
+     * @return True if server is running.
+     */
+    public boolean isRunning() {
+        if (this.daemon != null) {
+            return this.daemon.isHealthy();
+        }
+        return this.service != null && this.service.isRunning();
+    }
+
+    /**
+     * Check if Appium server is daemon shared with other test runs.
+     *
+     * @return True if server is daemon.
+     */
+    public boolean isDaemon() {
+        return this.daemon != null;
+    }
+
+    /**
+     * Check if Appium server daemon is used according to settings (also when server is not started).
+     *
+     * @return True if appiumServerDaemon is true (daemon is not used on Windows).
+     */
+    public boolean usesDaemon() {
+        return this.settings.appiumServerDaemon && this.settings.os != OSType.Windows;
+    }
+
+    /**
+     * Get path to Appium server log file.
+     *
+     * @return Path to log file (log of daemon is shared with other test runs).
+     */
+    public String getLogFile() {
+        if (this.usesDaemon()) {
+            return AppiumServerDaemon.getLogFile();
+        }
+        return this.logFilePath;
+    }
+
+    /**
+     * Get output of Appium server started by this test run.
+     *
+     * @return Output of server (null if server is daemon or it is not started).
+     */
+    public String getStdOut() {
+        if (this.service == null || this.usesDaemon()) {
+            return null;
+        }
+        return this.service.getStdOut();
+    }
+
+    /**
+     * Get url of Appium server.
+     *
+     * @return Url of Appium server.
+     */
+    public URL getUrl() {
+        if (this.daemon != null) {
+            return this.daemon.getUrl();
+        }
+        return this.service.getUrl();
+    }
+
     /**
      * Stop Appium server.
+     * Appium server daemon is not stopped, it is only detached (see appiumServerDaemon setting).
      */
     public void stopServer() {
-        if (this.service != null) {
+        if (this.daemon != null) {
+            this.daemon.detach();
+            this.daemon = null;
+        } else if (this.service != null) {
             try {
                 this.service.stop();
                 LOGGER_BASE.info("Appium server stopped.");
@@ -110,7 +202,7 @@ public class Server {
      * @throws IOException When fail to create log file.
      */
     private File createLogFile() throws IOException {
-        File logFile = new File(this.settings.appiumLogFile);
+        File logFile = new File(this.logFilePath);
         Files.deleteIfExists(logFile.toPath());
         logFile.getParentFile().mkdirs();
         boolean createLogFileResult = logFile.createNewFile();
@@ -140,7 +232,8 @@ public class Server {
         } else {
             // On different OSs, different nodejs managers might be in use,
             // therefore appium installation location may vary.
-            appiumPath = OSUtils.runProcess("which appium").trim();
+            // Path is cached between runs (see HostEnvironment).
+            appiumPath = HostEnvironment.getAppiumPath();
         }
 
         // Check if exists
@@ -0,0 +1,132 @@
+package functional.tests.core.appium;
+
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot-standby Appium server.
+ * Second server is started in background, so when primary server or session fails it can be replaced
+ * without waiting for server startup. New standby is started in background each time standby is taken.
+ * Notes: Device allows only one Appium session, so session is created on the standby server when it is taken.
+ */
+public class ServerStandby {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("ServerStandby");
+
+    private final Settings settings;
+    private final ExecutorService executor;
+    private Future<Server> standby;
+    private int generation;
+
+    /**
+     * Init standby.
+     *
+     * @param settings Settings.
+     */
+    public ServerStandby(Settings settings) {
+        this.settings = settings;
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "appium-standby");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Start standby server in background (if not already started).
+     */
+    public synchronized void prepare() {
+        if (this.standby != null) {
+            return;
+        }
+
+        this.generation++;
+        final String logFile = new File(this.settings.baseLogDir, "appium-standby-" + this.generation + ".log").getPath();
+        this.standby = this.executor.submit(new Callable<Server>() {
+            @Override
+            public Server call() throws Exception {
+                long startTime = System.currentTimeMillis();
+                Server server = new Server(ServerStandby.this.settings, logFile);
+                server.initServer();
+                LOGGER_BASE.info("Standby appium server started in " + (System.currentTimeMillis() - startTime) + " ms.");
+                return server;
+            }
+        });
+    }
+
+    /**
+     * Take standby server and start new standby in background.
+     *
+     * @param timeOut Time to wait for standby server to start (in seconds).
+     * @return Running server (null if standby is not available).
+     */
+    public synchronized Server take(int timeOut) {
+        if (this.standby == null) {
+            return null;
+        }
+
+        Server server = null;
+        try {
+            server = this.standby.get(timeOut, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            LOGGER_BASE.error("Standby appium server is not available: " + e.getMessage());
+            this.discard(this.standby);
+        }
+        this.standby = null;
+
+        if (server != null && !server.isRunning()) {
+            LOGGER_BASE.error("Standby appium server is not running.");
+            server.stopServer();
+            server = null;
+        }
+
+        this.prepare();
+        return server;
+    }
+
+    /**
+     * Stop standby server (if it is still starting, wait for it and stop it).
+     */
+    public synchronized void stop() {
+        if (this.standby != null) {
+            this.discard(this.standby);
+            this.standby = null;
+        }
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(this.settings.deviceBootTimeout, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Stop standby server when it is started.
+     * Tasks are executed in order, so stop is executed after start completes.
+     *
+     * @param pending Standby server.
+     */
+    private void discard(final Future<Server> pending) {
+        this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    pending.get().stopServer();
+                } catch (Exception e) {
+                    LOGGER_BASE.debug("Standby appium server failed to start: " + e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,252 @@
+package functional.tests.core.appium;
+
+import functional.tests.core.enums.PlatformType;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.FileSystem;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.MobileCommand;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.ios.IOSDriver;
+import io.appium.java_client.remote.AppiumCommandExecutor;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.openqa.selenium.remote.http.HttpClient;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Pool of idle Appium sessions.
+ * Session released by one client is handed out to next client that requests the same server and capabilities,
+ * so expensive session creation (install of helper apps, start of instrumentation or WDA) is done only once.
+ * Sessions on Appium server daemon are also recorded in ~/.functional-tests/appium-sessions.properties,
+ * so next test runs can attach to them.
+ * Session is validated before it is handed out (app under test must respond), dead sessions are dropped.
+ * Handed out sessions are attached with http client factory of the client, so health monitor and page snapshot
+ * of the client see all commands of the session.
+ */
+public class SessionPool {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("SessionPool");
+    private static final String SESSIONS_FILE = Settings.FRAMEWORK_HOME_DIR + File.separator + "appium-sessions.properties";
+    private static final Map<String, AppiumDriver<?>> IDLE_SESSIONS = new HashMap<>();
+
+    /**
+     * Get idle session for server and capabilities.
+     *
+     * @param server            Appium server.
+     * @param capabilities      Desired capabilities of session.
+     * @param platform          Mobile platform.
+     * @param httpClientFactory Factory of http clients of the driver.
+     * @return Live session (null if there is no idle session).
+     */
+    public static synchronized AppiumDriver<?> acquire(Server server, Capabilities capabilities, PlatformType platform,
+                                                       HttpClient.Factory httpClientFactory) {
+        String key = SessionPool.getKey(server.getUrl(), capabilities);
+        AppiumDriver<?> idle = IDLE_SESSIONS.remove(key);
+        String sessionId = idle != null && idle.getSessionId() != null ? idle.getSessionId().toString() : null;
+
+        // Try session of previous test run.
+        if (sessionId == null && server.isDaemon()) {
+            sessionId = SessionPool.readSessions().getProperty(key);
+            if (sessionId != null) {
+                // Session is in use now, so other test runs should not attach to it.
+                SessionPool.removeSession(key);
+                LOGGER_BASE.info("Attach to appium session " + sessionId + " of previous test run.");
+            }
+        }
+
+        AppiumDriver<?> driver = null;
+        if (sessionId != null) {
+            driver = SessionPool.attach(server.getUrl(), sessionId, capabilities, platform, httpClientFactory);
+        }
+        if (driver != null && !SessionPool.isAlive(driver)) {
+            LOGGER_BASE.info("Appium session " + driver.getSessionId() + " is not alive.");
+            driver = null;
+        }
+        return driver;
+    }
+
+    /**
+     * Return session to the pool.
+     *
+     * @param server       Appium server.
+     * @param capabilities Desired capabilities of session.
+     * @param driver       Session.
+     */
+    public static synchronized void release(Server server, Capabilities capabilities, AppiumDriver<?> driver) {
+        String key = SessionPool.getKey(server.getUrl(), capabilities);
+        AppiumDriver<?> previous = IDLE_SESSIONS.put(key, driver);
+        if (previous != null && previous != driver) {
+            SessionPool.quit(previous);
+        }
+
+        if (server.isDaemon()) {
+            Properties sessions = SessionPool.readSessions();
+            sessions.setProperty(key, driver.getSessionId().toString());
+            SessionPool.writeSessions(sessions);
+        }
+        LOGGER_BASE.info("Keep appium session " + driver.getSessionId() + " for reuse.");
+    }
+
+    /**
+     * Check if session and app under test respond (current activity on Android, page source on iOS).
+     *
+     * @param driver Session.
+     * @return True if session is alive.
+     */
+    public static boolean isAlive(AppiumDriver<?> driver) {
+        if (driver.getSessionId() == null) {
+            return false;
+        }
+        try {
+            if (driver instanceof AndroidDriver) {
+                return ((AndroidDriver<?>) driver).currentActivity() != null;
+            }
+            return driver.getPageSource() != null;
+        } catch (Exception e) {
+            LOGGER_BASE.debug("Session " + driver.getSessionId() + " does not respond: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Create driver for existing session (no new session is created on server).
+     *
+     * @param url               Url of Appium server.
+     * @param sessionId         Id of session.
+     * @param capabilities      Desired capabilities of session.
+     * @param platform          Mobile platform.
+     * @param httpClientFactory Factory of http clients of the driver.
+     * @return Driver (null if fail to attach).
+     */
+    private static AppiumDriver<?> attach(URL url, String sessionId, Capabilities capabilities, PlatformType platform,
+                                          HttpClient.Factory httpClientFactory) {
+        try {
+            AttachCommandExecutor executor = new AttachCommandExecutor(url, sessionId, capabilities, httpClientFactory);
+            if (platform == PlatformType.Andorid) {
+                return new AndroidDriver<>(executor, capabilities);
+            } else if (platform == PlatformType.iOS) {
+                return new IOSDriver<>(executor, capabilities);
+            }
+        } catch (Exception e) {
+            LOGGER_BASE.debug("Failed to attach to session " + sessionId + ": " + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Quit session (errors are ignored).
+     *
+     * @param driver Session.
+     */
+    private static void quit(AppiumDriver<?> driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LOGGER_BASE.debug("Failed to quit session: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Remove session from sessions file.
+     *
+     * @param key Key of session.
+     */
+    private static void removeSession(String key) {
+        Properties sessions = SessionPool.readSessions();
+        if (sessions.remove(key) != null) {
+            SessionPool.writeSessions(sessions);
+        }
+    }
+
+    /**
+     * Get key of session (server and capabilities, order of capabilities does not matter).
+     *
+     * @param url          Url of Appium server.
+     * @param capabilities Desired capabilities.
+     * @return Key.
+     */
+    private static String getKey(URL url, Capabilities capabilities) {
+        return url + " " + new TreeMap<>(capabilities.asMap()).toString().hashCode();
+    }
+
+    /**
+     * Read sessions file.
+     *
+     * @return Session ids by key.
+     */
+    private static Properties readSessions() {
+        Properties sessions = new Properties();
+        File file = new File(SESSIONS_FILE);
+        if (file.exists()) {
+            try (InputStream input = new FileInputStream(file)) {
+                sessions.load(input);
+            } catch (IOException e) {
+                LOGGER_BASE.error("Failed to read " + SESSIONS_FILE + ": " + e.getMessage());
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Write sessions file.
+     *
+     * @param sessions Session ids by key.
+     */
+    private static void writeSessions(Properties sessions) {
+        FileSystem.ensureFolderExists(Settings.FRAMEWORK_HOME_DIR);
+        try (OutputStream output = new FileOutputStream(SESSIONS_FILE)) {
+            sessions.store(output, "Appium sessions");
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to write " + SESSIONS_FILE + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Command executor that returns existing session instead of creating new one.
+     */
+    private static class AttachCommandExecutor extends AppiumCommandExecutor {
+
+        private final String sessionId;
+        private final Capabilities capabilities;
+
+        /**
+         * Init executor.
+         *
+         * @param url               Url of Appium server.
+         * @param sessionId         Id of existing session.
+         * @param capabilities      Capabilities of existing session.
+         * @param httpClientFactory Factory of http clients.
+         */
+        AttachCommandExecutor(URL url, String sessionId, Capabilities capabilities, HttpClient.Factory httpClientFactory) {
+            super(MobileCommand.commandRepository, url, httpClientFactory);
+            this.sessionId = sessionId;
+            this.capabilities = capabilities;
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                Response response = new Response(new SessionId(this.sessionId));
+                response.setStatus(0);
+                response.setValue(this.capabilities.asMap());
+                return response;
+            }
+            return super.execute(command);
+        }
+    }
+}
@@ -4,6 +4,8 @@ import functional.tests.core.app.App;
 import functional.tests.core.appium.Client;
 import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.element.LazyElement;
+import functional.tests.core.element.SnapshotElement;
 import functional.tests.core.element.UIElement;
 import functional.tests.core.enums.ClickType;
 import functional.tests.core.find.Find;
@@ -13,7 +15,9 @@ import functional.tests.core.gestures.Gestures;
 import functional.tests.core.helpers.NavigationHelper;
 import functional.tests.core.log.Log;
 import functional.tests.core.settings.Settings;
+import io.appium.java_client.SwipeElementDirection;
 import org.bridj.ann.Virtual;
+import org.openqa.selenium.By;
 import org.testng.Assert;
 
 /**
@@ -30,6 +34,10 @@ public class BasePage {
     public Context context;
     public App app;
 
+    /**
+     * If true, lookups and swipes of this page use Android fast path (uiautomator dump and adb input, see AndroidFastPath).
+     */
+    public boolean androidFastPath;
 
     /**
      * TODO(): Please explain when we should use BasePage().
@@ -107,4 +115,50 @@ public class BasePage {
         Assert.assertNotNull(element, String.format("%s page loaded.", className));
         this.log.info(String.format("%s page loaded.", className));
     }
+
+    /**
+     * Find element by text locally (uiautomator dump if androidFastPath is true, otherwise page snapshot).
+     *
+     * @param text Text.
+     * @return Element (null if not found in time).
+     */
+    public SnapshotElement snapshotByText(String text) {
+        if (this.androidFastPath) {
+            return this.find.fastByText(text, this.settings.defaultTimeout);
+        }
+        return this.find.snapshotByText(text, this.settings.defaultTimeout);
+    }
+
+    /**
+     * Find element by locator locally (uiautomator dump if androidFastPath is true, otherwise page snapshot).
+     *
+     * @param locator Locator (xpath, id or className, InvalidSelectorException is thrown for other locators).
+     * @return Element (null if not found in time).
+     */
+    public SnapshotElement snapshotByLocator(By locator) {
+        if (this.androidFastPath) {
+            return this.find.fastByLocator(locator, this.settings.defaultTimeout);
+        }
+        return this.find.snapshotByLocator(locator, this.settings.defaultTimeout);
+    }
+
+    /**
+     * Swipe in window (with adb input if androidFastPath is true).
+     *
+     * @param direction Direction.
+     * @param duration  Duration in milliseconds.
+     */
+    public void swipe(SwipeElementDirection direction, int duration) {
+        this.gestures.swipeInWindow(direction, duration, 0, this.androidFastPath);
+    }
+
+    /**
+     * Get element bound to locator (found on first use and cached until page transition, see LazyElement).
+     *
+     * @param locator Locator.
+     * @return Lazy element.
+     */
+    public LazyElement lazyElement(By locator) {
+        return new LazyElement(locator, this.context);
+    }
 }
@@ -9,6 +9,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.BeforeSuite;
+import org.testng.annotations.Listeners;
 
 import java.io.IOException;
 import java.lang.reflect.Method;
@@ -17,7 +18,9 @@ import java.lang.reflect.Method;
  * Base Test.
  * Base tests is designed for all kind of tests.
  * No UI related dependencies should be used in BaseTest.
+ * Time budget of each test method is started and stopped by WaitBudgetListener.
  */
+@Listeners(WaitBudgetListener.class)
 public class BaseTest {
 
     protected TestSetupManager testSetupManager;
@@ -32,7 +35,6 @@ public class BaseTest {
      */
     public BaseTest() {
         this.initTestSetup();
-        this.testSetupManager = new TestSetupManager(this.context);
     }
 
     /**
@@ -47,6 +49,10 @@ public class BaseTest {
         // Run doctor to check if system and settings are ok.
         if (this.settings.debug) {
             this.log.info("[DEBUG MODE] Skip doctor.");
+        } else if (TestContextSetupManager.isParallel()) {
+            for (String appConfig : TestContextSetupManager.getAppConfigs()) {
+                Doctor.check(TestContextSetupManager.initTestSetupBasic(appConfig).settings);
+            }
         } else {
             Doctor.check(this.settings);
         }
@@ -67,6 +73,20 @@ public class BaseTest {
         this.log.info("Start test: " + method.getName());
     }
 
+    /**
+     * Get time budget of test (TimeBudget annotation of method or class, otherwise testTimeBudget setting).
+     *
+     * @param method Test method.
+     * @return Budget in seconds (0 means no budget).
+     */
+    protected int getTimeBudget(Method method) {
+        TimeBudget budget = method.getAnnotation(TimeBudget.class);
+        if (budget == null) {
+            budget = method.getDeclaringClass().getAnnotation(TimeBudget.class);
+        }
+        return budget != null ? budget.value() : this.settings.testTimeBudget;
+    }
+
     /**
      * Executed after each test.
      * Actions:
@@ -111,13 +131,28 @@ public class BaseTest {
     }
 
     /**
-     * Init test setup.
+     * Use context of another config (for example device leased from DevicePool).
+     *
+     * @param testContextSetupManager Context setup.
      */
-    private void initTestSetup() {
-        this.testContextSetupManager = TestContextSetupManager.initTestSetupBasic();
+    protected void bindTestSetup(TestContextSetupManager testContextSetupManager) {
+        this.testContextSetupManager = testContextSetupManager;
         this.context = this.testContextSetupManager.context;
         this.settings = this.context.settings;
         this.locators = this.context.locators;
         this.log = this.context.log;
+        this.testSetupManager = new TestSetupManager(this.context);
+    }
+
+    /**
+     * Init test setup.
+     */
+    private void initTestSetup() {
+        if (TestContextSetupManager.isParallel() && TestContextSetupManager.getBoundAppConfig() == null) {
+            // Test is created before device is leased (see UIBaseTest), use first config until then.
+            this.bindTestSetup(TestContextSetupManager.initTestSetupBasic(TestContextSetupManager.getAppConfigs().get(0)));
+        } else {
+            this.bindTestSetup(TestContextSetupManager.initTestSetupBasic());
+        }
     }
 }
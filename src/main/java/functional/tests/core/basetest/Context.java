@@ -3,7 +3,10 @@ package functional.tests.core.basetest;
 import functional.tests.core.app.App;
 import functional.tests.core.appium.Client;
 import functional.tests.core.appium.Server;
+import functional.tests.core.appium.ServerStandby;
 import functional.tests.core.device.Device;
+import functional.tests.core.device.android.AndroidFastPath;
+import functional.tests.core.enums.PlatformType;
 import functional.tests.core.find.Find;
 import functional.tests.core.find.Locators;
 import functional.tests.core.find.Wait;
@@ -14,14 +17,19 @@ import functional.tests.core.image.Sikuli;
 import functional.tests.core.log.Log;
 import functional.tests.core.settings.Settings;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Provides access to Server, Client, Device, App and other help classes.
  */
 public class Context {
 
     private String testName;
+    private AndroidFastPath androidFastPath;
+    private final AtomicInteger pageVersion = new AtomicInteger();
 
     public Server server;
+    public ServerStandby serverStandby;
     public Settings settings;
     public Wait wait;
     public Find find;
@@ -99,4 +107,50 @@ public class Context {
     public Device getDevice() {
         return this.device;
     }
+
+    /**
+     * Get version of current page (changed on each page transition).
+     *
+     * @return Version of page.
+     */
+    public int getPageVersion() {
+        return this.pageVersion.get();
+    }
+
+    /**
+     * Mark page transition (cached elements of lazy elements are found again, see LazyElement).
+     * Page snapshot and cached geometry of elements are dropped as well (see UIElement.invalidateGeometry()).
+     */
+    public void pageChanged() {
+        this.pageVersion.incrementAndGet();
+        if (this.client != null) {
+            this.client.snapshot.invalidate();
+        }
+    }
+
+    /**
+     * Get driverless fast path of Android device (created on first call).
+     *
+     * @return Android fast path (null on iOS).
+     */
+    public AndroidFastPath getAndroidFastPath() {
+        if (this.settings == null || this.settings.platform != PlatformType.Andorid || this.device == null) {
+            return null;
+        }
+        if (this.androidFastPath == null) {
+            this.androidFastPath = new AndroidFastPath(this.device.getId(), this.client);
+        }
+        return this.androidFastPath;
+    }
+
+    /**
+     * Log statistics of Android fast path and stop its adb shell (if fast path is used).
+     */
+    public void stopAndroidFastPath() {
+        if (this.androidFastPath != null) {
+            this.androidFastPath.logStatistics();
+            this.androidFastPath.close();
+            this.androidFastPath = null;
+        }
+    }
 }
@@ -0,0 +1,165 @@
+package functional.tests.core.basetest;
+
+import functional.tests.core.exceptions.DeviceException;
+import functional.tests.core.log.LoggerBase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Pool of devices used when tests are executed on multiple devices in parallel.
+ * Each device has own context (settings, Appium server, client, device, find, wait...).
+ * Test class leases a device before its first test and releases it after its last test,
+ * so each device is used by only one thread at a time.
+ * Use it with TestNG parallel="classes" and thread-count equal to number of devices.
+ */
+public class DevicePool {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("DevicePool");
+    private static DevicePool instance;
+
+    private final List<TestContextSetupManager> devices;
+    private final BlockingQueue<TestContextSetupManager> available;
+
+    /**
+     * Init device pool.
+     */
+    private DevicePool() {
+        this.devices = new ArrayList<>();
+        this.available = new LinkedBlockingQueue<>();
+    }
+
+    /**
+     * Get device pool.
+     *
+     * @return Device pool instance.
+     */
+    public static synchronized DevicePool getInstance() {
+        if (DevicePool.instance == null) {
+            DevicePool.instance = new DevicePool();
+        }
+        return DevicePool.instance;
+    }
+
+    /**
+     * Start Appium server, device and client for each config specified in appConfigs VM option.
+     * Devices are started in parallel.
+     *
+     * @throws DeviceException When some of the devices fails to start.
+     */
+    public synchronized void start() throws DeviceException {
+        List<String> appConfigs = TestContextSetupManager.getAppConfigs();
+        LOGGER_BASE.info("Start " + appConfigs.size() + " devices in parallel.");
+
+        ExecutorService executor = Executors.newFixedThreadPool(appConfigs.size());
+        try {
+            List<Future<TestContextSetupManager>> futures = new ArrayList<>();
+            for (final String appConfig : appConfigs) {
+                futures.add(executor.submit(new Callable<TestContextSetupManager>() {
+                    @Override
+                    public TestContextSetupManager call() throws Exception {
+                        return DevicePool.this.startDevice(appConfig);
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    TestContextSetupManager device = futures.get(i).get();
+                    this.devices.add(device);
+                    this.available.add(device);
+                } catch (ExecutionException e) {
+                    String error = "Failed to start device for " + appConfigs.get(i) + ": " + e.getCause();
+                    LOGGER_BASE.fatal(error);
+                    throw new DeviceException(error);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new DeviceException("Interrupted while starting devices.");
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Lease free device and bind its config to current thread.
+     * Waits until some device is released if all devices are in use.
+     *
+     * @return Context setup of leased device.
+     * @throws InterruptedException When thread is interrupted while waiting for free device.
+     */
+    public TestContextSetupManager lease() throws InterruptedException {
+        TestContextSetupManager device = this.available.take();
+        TestContextSetupManager.bind(device.appConfig);
+        LOGGER_BASE.info(Thread.currentThread().getName() + " leased " + device.settings.deviceId + ".");
+        return device;
+    }
+
+    /**
+     * Release device and remove config bound to current thread.
+     *
+     * @param device Context setup of leased device.
+     */
+    public void release(TestContextSetupManager device) {
+        TestContextSetupManager.unbind();
+        this.available.add(device);
+        LOGGER_BASE.info(Thread.currentThread().getName() + " released " + device.settings.deviceId + ".");
+    }
+
+    /**
+     * Get all started devices.
+     *
+     * @return Context setups of all devices.
+     */
+    public synchronized List<TestContextSetupManager> getDevices() {
+        return new ArrayList<>(this.devices);
+    }
+
+    /**
+     * Log perf info and stop app, client, server and device for all devices.
+     */
+    public synchronized void stop() {
+        for (TestContextSetupManager device : this.devices) {
+            TestContextSetupManager.bind(device.appConfig);
+            try {
+                device.device.logPerfInfo();
+                new TestSetupManager(device.context).fullStop();
+            } catch (Exception e) {
+                LOGGER_BASE.error("Failed to stop " + device.settings.deviceId + ": " + e.getMessage());
+            } finally {
+                TestContextSetupManager.unbind();
+            }
+        }
+        this.devices.clear();
+        this.available.clear();
+    }
+
+    /**
+     * Init context and start Appium server, device and client for config.
+     *
+     * @param appConfig Path to config file.
+     * @return Context setup of started device.
+     * @throws Exception When fail to start device.
+     */
+    private TestContextSetupManager startDevice(String appConfig) throws Exception {
+        TestContextSetupManager.bind(appConfig);
+        try {
+            TestContextSetupManager device = TestContextSetupManager.initTestSetupBasic(appConfig);
+            device.initUITestSetup();
+
+            TestSetupManager testSetupManager = new TestSetupManager(device.context);
+            testSetupManager.bootstrap();
+            return device;
+        } finally {
+            TestContextSetupManager.unbind();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package functional.tests.core.basetest;
+
+import functional.tests.core.device.BootTimings;
+import functional.tests.core.log.LoggerBase;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Execute bootstrap phases (start server, boot device, analyze app, prefetch resources...) as dependency graph.
+ * Each phase starts as soon as all its dependencies complete, so independent phases are overlapped.
+ * Phase fails if any of its dependencies fail, first failure is propagated to the caller of run().
+ * Duration of each phase is logged at the end.
+ */
+public class SuiteBootstrap {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("SuiteBootstrap");
+
+    private final Map<String, Callable<?>> tasks;
+    private final Map<String, String[]> dependencies;
+    private final BootTimings timings;
+
+    /**
+     * Init bootstrap.
+     */
+    public SuiteBootstrap() {
+        this.tasks = new LinkedHashMap<>();
+        this.dependencies = new LinkedHashMap<>();
+        this.timings = new BootTimings();
+    }
+
+    /**
+     * Add phase.
+     * Dependencies should be added before phases that depend on them.
+     *
+     * @param name         Name of phase.
+     * @param task         Task of phase.
+     * @param dependencies Names of phases that should complete before this phase starts.
+     */
+    public void addPhase(String name, Callable<?> task, String... dependencies) {
+        for (String dependency : dependencies) {
+            if (!this.tasks.containsKey(dependency)) {
+                throw new IllegalArgumentException("Phase " + name + " depends on unknown phase " + dependency + ".");
+            }
+        }
+        this.tasks.put(name, task);
+        this.dependencies.put(name, dependencies);
+    }
+
+    /**
+     * Get durations of completed phases.
+     *
+     * @return Boot timings.
+     */
+    public BootTimings getTimings() {
+        return this.timings;
+    }
+
+    /**
+     * Execute all phases and wait them to complete.
+     *
+     * @throws Exception First failure of phase (other phases are cancelled).
+     */
+    public void run() throws Exception {
+        long startTime = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.tasks.size()));
+        final Map<String, Future<?>> futures = new LinkedHashMap<>();
+        // Phases resolve the same test context as caller (see TestContextSetupManager.bind()).
+        final String appConfig = TestContextSetupManager.getBoundAppConfig();
+        try {
+            for (final Map.Entry<String, Callable<?>> entry : this.tasks.entrySet()) {
+                final List<Future<?>> dependencyFutures = new ArrayList<>();
+                for (String dependency : this.dependencies.get(entry.getKey())) {
+                    dependencyFutures.add(futures.get(dependency));
+                }
+
+                futures.put(entry.getKey(), executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        for (Future<?> dependency : dependencyFutures) {
+                            dependency.get();
+                        }
+                        if (appConfig != null) {
+                            TestContextSetupManager.bind(appConfig);
+                        }
+                        try {
+                            return SuiteBootstrap.this.execute(entry.getKey(), entry.getValue());
+                        } finally {
+                            TestContextSetupManager.unbind();
+                        }
+                    }
+                }));
+            }
+
+            for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+                try {
+                    entry.getValue().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    // Report root cause (not failure of dependency).
+                    while (cause instanceof ExecutionException && cause.getCause() != null) {
+                        cause = cause.getCause();
+                    }
+                    LOGGER_BASE.fatal("Bootstrap phase " + entry.getKey() + " failed: " + cause.getMessage());
+                    if (cause instanceof Exception) {
+                        throw (Exception) cause;
+                    }
+                    throw new Exception(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            this.timings.record("total", System.currentTimeMillis() - startTime);
+            this.timings.log();
+        }
+    }
+
+    /**
+     * Execute phase and record its duration.
+     *
+     * @param name Name of phase.
+     * @param task Task of phase.
+     * @return Result of task.
+     * @throws Exception When task fails.
+     */
+    private Object execute(String name, Callable<?> task) throws Exception {
+        LOGGER_BASE.debug("Start bootstrap phase " + name + ".");
+        this.timings.start(name);
+        try {
+            return task.call();
+        } finally {
+            this.timings.stop(name);
+        }
+    }
+}
@@ -15,17 +15,26 @@ import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import org.testng.ITestResult;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Setup all dependencies of the tests context.
+ * One context is created per config file.
+ * Config of the current thread is taken from appConfig VM option, or from the config bound to the thread
+ * when tests are executed on multiple devices in parallel (see appConfigs VM option and DevicePool).
  */
 public class TestContextSetupManager {
 
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("TestContextSetupManager");
+    private static final ThreadLocal<String> BOUND_APP_CONFIG = new ThreadLocal<>();
 
-    protected static Map<String, TestContextSetupManager> initSettings;
+    protected static Map<String, TestContextSetupManager> initSettings = new ConcurrentHashMap<>();
+    private static boolean log4jInitialized;
+
+    public String appConfig;
     public Log log;
     public Settings settings;
     public Locators locators;
@@ -41,7 +50,8 @@ public class TestContextSetupManager {
 
     public Context context;
 
-    private TestContextSetupManager() {
+    private TestContextSetupManager(String appConfig) {
+        this.appConfig = appConfig;
         this.context = new Context();
     }
 
@@ -52,20 +62,28 @@ public class TestContextSetupManager {
      * @return Instance of TestContextSetupManager.
      */
     public static TestContextSetupManager initTestSetupBasic() {
-        TestContextSetupManager testContextSetupManager;
-        if (TestContextSetupManager.initSettings == null) {
-            TestContextSetupManager.initSettings = new HashMap<>();
+        return TestContextSetupManager.initTestSetupBasic(getAppConfig());
+    }
+
+    /**
+     * Init only once per configuration.
+     *
+     * @param appConfig Path to config file.
+     * @return Instance of TestContextSetupManager.
+     */
+    public static synchronized TestContextSetupManager initTestSetupBasic(String appConfig) {
+        if (!TestContextSetupManager.log4jInitialized) {
             LoggerBase.initLog4j();
+            TestContextSetupManager.log4jInitialized = true;
         }
 
-        if (!TestContextSetupManager.initSettings.containsKey(getAppConfig())) {
-            testContextSetupManager = new TestContextSetupManager();
+        TestContextSetupManager testContextSetupManager = TestContextSetupManager.initSettings.get(appConfig);
+        if (testContextSetupManager == null) {
+            testContextSetupManager = new TestContextSetupManager(appConfig);
             testContextSetupManager.initSettings();
             testContextSetupManager.initLog();
             testContextSetupManager.context.lastTestResult = ITestResult.SUCCESS;
-            TestContextSetupManager.initSettings.put(getAppConfig(), testContextSetupManager);
-        } else {
-            testContextSetupManager = TestContextSetupManager.initSettings.get(getAppConfig());
+            TestContextSetupManager.initSettings.put(appConfig, testContextSetupManager);
         }
 
         return testContextSetupManager;
@@ -73,19 +91,86 @@ public class TestContextSetupManager {
 
     /**
      * Get current app configuration.
+     * Config bound to current thread has priority over appConfig VM option.
      *
-     * @return
+     * @return Path to config file.
+     * @throws IllegalStateException When tests are executed on multiple devices and no config is bound to current thread.
      */
     public static String getAppConfig() {
+        String appConfig = BOUND_APP_CONFIG.get();
+        if (appConfig != null) {
+            return appConfig;
+        }
+        if (TestContextSetupManager.isParallel()) {
+            throw new IllegalStateException("No app config is bound to thread " + Thread.currentThread().getName()
+                    + " (lease device from DevicePool or bind config of the caller).");
+        }
         return System.getProperty("appConfig");
     }
 
+    /**
+     * Get config bound to current thread.
+     *
+     * @return Path to config file (null if no config is bound).
+     */
+    public static String getBoundAppConfig() {
+        return BOUND_APP_CONFIG.get();
+    }
+
+    /**
+     * Get all app configurations (one per device).
+     * Configs are specified as comma separated list via appConfigs VM option.
+     * For example: -DappConfigs=resources/config/app.emu.api23.properties,resources/config/app.emu.api24.properties
+     *
+     * @return List of paths to config files (only appConfig if appConfigs is not specified).
+     */
+    public static List<String> getAppConfigs() {
+        List<String> appConfigs = new ArrayList<>();
+        String value = System.getProperty("appConfigs");
+        if (value == null) {
+            appConfigs.add(System.getProperty("appConfig"));
+        } else {
+            for (String appConfig : value.split(",")) {
+                if (!appConfig.trim().isEmpty()) {
+                    appConfigs.add(appConfig.trim());
+                }
+            }
+        }
+        return appConfigs;
+    }
+
+    /**
+     * Check if tests are executed on multiple devices in parallel.
+     *
+     * @return True if more than one config is specified via appConfigs VM option.
+     */
+    public static boolean isParallel() {
+        return TestContextSetupManager.getAppConfigs().size() > 1;
+    }
+
+    /**
+     * Bind config to current thread.
+     * All contexts resolved in current thread (for example in UIElement, Find and Wait) will use this config.
+     *
+     * @param appConfig Path to config file.
+     */
+    public static void bind(String appConfig) {
+        BOUND_APP_CONFIG.set(appConfig);
+    }
+
+    /**
+     * Remove config bound to current thread.
+     */
+    public static void unbind() {
+        BOUND_APP_CONFIG.remove();
+    }
+
     /**
      * Init tests context.
      *
      * @return
      */
-    public Context initUITestSetup() {
+    public synchronized Context initUITestSetup() {
         if (this.client == null) {
             this.initLocators();
             this.initServer();
@@ -129,7 +214,7 @@ public class TestContextSetupManager {
      * @return
      */
     public Settings initSettings() {
-        this.settings = new Settings();
+        this.settings = new Settings(this.appConfig, TestContextSetupManager.isParallel());
         this.updateTestContext();
 
         return this.settings;
@@ -228,7 +313,7 @@ public class TestContextSetupManager {
      * @return
      */
     public Sikuli initSikuliImageProcessing() {
-        this.sikuliImageProcessing = new Sikuli(this.settings.testAppName);
+        this.sikuliImageProcessing = new Sikuli(this.settings.testAppName, this.context);
         this.updateTestContext();
         return this.sikuliImageProcessing;
     }
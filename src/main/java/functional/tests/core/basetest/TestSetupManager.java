@@ -1,14 +1,22 @@
 package functional.tests.core.basetest;
 
+import functional.tests.core.appium.Server;
+import functional.tests.core.appium.ServerStandby;
 import functional.tests.core.enums.DeviceType;
+import functional.tests.core.enums.OSType;
+import functional.tests.core.enums.PlatformType;
 import functional.tests.core.exceptions.DeviceException;
 import functional.tests.core.exceptions.MobileAppException;
 import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
 import functional.tests.core.utils.FileSystem;
 import functional.tests.core.utils.OSUtils;
 import org.testng.ITestResult;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -52,17 +60,20 @@ public class TestSetupManager {
         this.checkLogsForCrash();
         this.takeScreenOfHost("HostOS_Failed_To_Init_Appium_Session");
         LOGGER_BASE.info("Retry initializing appium server and client");
-        this.context.settings.appiumLogLevel = "debug";
+        // Log level is part of arguments of server daemon, so changing it would restart daemon shared with other test runs.
+        if (!this.context.server.usesDaemon()) {
+            this.context.settings.appiumLogLevel = "debug";
+        }
         this.context.settings.deviceBootTimeout = this.context.settings.deviceBootTimeout * 2;
         try {
             try {
-                String log = this.context.server.service.getStdOut();
+                String log = this.context.server.getStdOut();
                 if (log != null) {
                     this.context.log.separator();
                     this.context.log.info(log);
                     this.context.log.separator();
                 } else {
-                    LOGGER_BASE.error("Server log not available!");
+                    LOGGER_BASE.error("Server log not available! See " + this.context.server.getLogFile());
                 }
             } catch (Exception ex) {
                 LOGGER_BASE.error("Failed to get appium logs.");
@@ -71,13 +82,13 @@ public class TestSetupManager {
         } catch (Exception re) {
             try {
                 this.takeScreenOfHost("HostOS_Failed_To_Init_Appium_Session_After_Retry");
-                String log = this.context.server.service.getStdOut();
+                String log = this.context.server.getStdOut();
                 if (log != null) {
                     LOGGER_BASE.separator();
                     LOGGER_BASE.info(log);
                     LOGGER_BASE.separator();
                 } else {
-                    LOGGER_BASE.error("Server log not available!");
+                    LOGGER_BASE.error("Server log not available! See " + this.context.server.getLogFile());
                 }
             } catch (Exception ex) {
                 LOGGER_BASE.error("Failed to get appium logs.");
@@ -96,26 +107,39 @@ public class TestSetupManager {
     }
 
     /**
-     * Stop app under test, appium client and server.
+     * Stop app under test, appium client, server and standby server.
      * If reuseDevice is false, stop emulator/simulator.
      */
     public void fullStop() {
-        this.context.app.close();
-        this.context.client.stopDriver();
-        this.context.server.stopServer();
-        if (!this.context.settings.reuseDevice) {
-            this.stopDevice();
+        if (this.context.locators != null) {
+            this.context.locators.logStatistics();
+        }
+        this.context.stopAndroidFastPath();
+        this.stopSession();
+        if (this.context.serverStandby != null) {
+            this.context.serverStandby.stop();
+            this.context.serverStandby = null;
         }
     }
 
     /**
      * Restart Appium server and client (only if Appium session is not available).
+     * If standby server is available, swap to it (only new session is created).
+     * If reuseSession is true and server is running, only session is restarted (failed session is closed, not reused).
      */
     public void restartSession() {
-        // TODO(dtopuzov): This need refactoring. Do not stop server if it is running.
-        this.fullStop(); // For sure we don't need full stop here!
-        this.restartServer();
-        LOGGER_BASE.info("Failed to restart test app. Resets apppium client/server.");
+        if (this.swapToStandbyServer()) {
+            return;
+        }
+
+        if (this.context.settings.reuseSession && this.context.server.isRunning()) {
+            this.context.client.stopDriver(true);
+            LOGGER_BASE.info("Failed to restart test app. Resets apppium client.");
+        } else {
+            this.stopSession();
+            this.restartServer();
+            LOGGER_BASE.info("Failed to restart test app. Resets apppium client/server.");
+        }
 
         try {
             this.startDevice();
@@ -136,6 +160,119 @@ public class TestSetupManager {
         this.context.device.start();
     }
 
+    /**
+     * Start Appium server, device and client.
+     * Server start, device boot, analysis of app under test and boot tasks of device (for example prefetch of
+     * baseline images) are executed in parallel, appium client is started when both server and device are ready.
+     *
+     * @throws Exception When some of the phases fails.
+     */
+    public void bootstrap() throws Exception {
+        final Settings settings = this.context.settings;
+        SuiteBootstrap bootstrap = new SuiteBootstrap();
+
+        bootstrap.addPhase("server", new Callable<Object>() {
+            @Override
+            public Object call() {
+                // Start server (and retry on failure)
+                if (!TestSetupManager.this.initServer()) {
+                    TestSetupManager.this.restartServer();
+                }
+                return null;
+            }
+        });
+
+        bootstrap.addPhase("apk", new Callable<Object>() {
+            @Override
+            public Object call() throws IOException {
+                // Checksum of app under test is used to skip install and validate snapshots, calculate it in advance.
+                File app = new File(Settings.BASE_TEST_APP_DIR, settings.testAppName);
+                if (settings.platform == PlatformType.Andorid && app.isFile()) {
+                    FileSystem.getSha256(app.getAbsolutePath());
+                }
+                return null;
+            }
+        });
+
+        for (Map.Entry<String, Callable<?>> task : this.context.device.takeBootTasks().entrySet()) {
+            bootstrap.addPhase(task.getKey(), task.getValue());
+        }
+
+        bootstrap.addPhase("device", new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                TestSetupManager.this.context.device.boot();
+                return null;
+            }
+        });
+
+        bootstrap.addPhase("session", new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                TestSetupManager.this.context.device.startSession();
+                return null;
+            }
+        }, "server", "device");
+
+        bootstrap.run();
+
+        // Start standby server when primary is healthy.
+        if (settings.standbyServer && !this.context.server.isDaemon() && settings.os != OSType.Windows) {
+            this.context.serverStandby = new ServerStandby(settings);
+            this.context.serverStandby.prepare();
+        }
+    }
+
+    /**
+     * Replace current server and session with standby server and new session.
+     * Failed server is stopped in background.
+     *
+     * @return True if new session is started on standby server.
+     */
+    private boolean swapToStandbyServer() {
+        if (this.context.serverStandby == null) {
+            return false;
+        }
+
+        Server standby = this.context.serverStandby.take(this.context.settings.deviceBootTimeout);
+        if (standby == null) {
+            return false;
+        }
+
+        LOGGER_BASE.info("Failed to restart test app. Swap to standby appium server.");
+        final Server failed = this.context.server;
+        this.context.client.stopDriver(true);
+        this.context.server = standby;
+        this.context.client.server = standby;
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                failed.stopServer();
+            }
+        }, "appium-stop").start();
+
+        try {
+            this.context.device.startSession();
+            return true;
+        } catch (Exception e) {
+            LOGGER_BASE.error("Failed to start session on standby appium server: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Stop app under test, appium client and server.
+     * If reuseDevice is false, stop emulator/simulator.
+     */
+    private void stopSession() {
+        this.context.app.close();
+        this.context.client.stopDriver();
+        this.context.server.stopServer();
+        if (!this.context.settings.reuseDevice) {
+            this.stopDevice();
+        }
+    }
+
     /**
      * TODO(): Add docs.
      */
@@ -187,7 +324,7 @@ public class TestSetupManager {
      */
     private void checkLogsForCrash() {
         try {
-            String appiumLog = FileSystem.readFile(this.context.settings.appiumLogFile);
+            String appiumLog = FileSystem.readFile(this.context.server.getLogFile());
             String[] lines = appiumLog.split("\\r?\\n");
             for (String line : lines) {
                 if (line.contains("IOS_SYSLOG_ROW") && line.contains("crashed.")) {
@@ -0,0 +1,22 @@
+package functional.tests.core.basetest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Time budget of test (overrides testTimeBudget setting, see WaitBudget).
+ * Can be set on test method or on test class (for all its tests).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface TimeBudget {
+
+    /**
+     * Budget in seconds (0 means no budget).
+     *
+     * @return Budget in seconds.
+     */
+    int value();
+}
@@ -37,6 +37,7 @@ public abstract class UIBaseTest extends BaseTest {
     private Map<String, Boolean> imagesResults;
 
     private boolean firstTest;
+    private TestContextSetupManager leasedDevice;
     private Sikuli sikuliImageProcessing;
     private Server server;
 
@@ -57,7 +58,7 @@ public abstract class UIBaseTest extends BaseTest {
      */
     public UIBaseTest() {
         this.initUITestHelpers();
-        this.imageVerification = new ImageVerification();
+        this.imageVerification = new ImageVerification(this.context);
     }
 
     /**
@@ -73,8 +74,8 @@ public abstract class UIBaseTest extends BaseTest {
      * Executed before suite with UI Tests.
      * Actions:
      * 1. Start Appium server (retry once on failure).
-     * 2. Start emulator/simulator or ensure device is available.
-     * 3. Start appium client (and deploy app under test).
+     * 2. Start emulator/simulator or ensure device is available (in parallel with step 1).
+     * 3. Start appium client (and deploy app under test) when both server and device are ready.
      * 4. Verify app under test is running and track loading time.     *
      *
      * @throws Exception
@@ -86,23 +87,42 @@ public abstract class UIBaseTest extends BaseTest {
         // And on second call of this.testSetupManager.initServer() we should force debug log level.
         // It will be very usefull to get logs on failure.
 
-        // Start server (and retry on failure
-        if (!this.testSetupManager.initServer()) {
-            this.testSetupManager.restartServer();
+        if (TestContextSetupManager.isParallel()) {
+            // Start server, device and client for each config in parallel.
+            DevicePool.getInstance().start();
+        } else {
+            // Start server and device in parallel, then init client.
+            this.testSetupManager.bootstrap();
         }
 
-        // Start device and init client (Init Appium Client is done on Device.start())
-        this.testSetupManager.startDevice();
-
         // Mark this test as first in suite
         this.firstTest = true;
     }
 
+    /**
+     * Executed before first test of class.
+     * Actions:
+     * 1. [Only if tests are executed on multiple devices] Lease free device and use its context in this class.
+     *
+     * @throws Exception
+     */
+    @BeforeClass(alwaysRun = true)
+    public void beforeClassUIBaseTest() throws Exception {
+        if (TestContextSetupManager.isParallel()) {
+            this.leasedDevice = DevicePool.getInstance().lease();
+            this.bindTestSetup(this.leasedDevice);
+            this.initUITestHelpers();
+            this.imageVerification = new ImageVerification(this.context);
+            this.firstTest = true;
+        }
+    }
+
     /**
      * Executed before each UI Test method.
      * Actions:
-     * 1. [If restartApp=true] Restart app under test.
-     * 2. [Only if previous test failed] Restart appium session and app under test.
+     * 1. [Only if session is dead] Restart appium session.
+     * 2. [If restartApp=true] Restart app under test.
+     * 3. [Only if previous test failed] Restart appium session and app under test.
      *
      * @param method
      * @throws Exception
@@ -110,6 +130,16 @@ public abstract class UIBaseTest extends BaseTest {
     @BeforeMethod(alwaysRun = true)
     public void beforeMethodUIBaseTest(Method method) throws Exception {
 
+        // Restart session if health monitor found it dead (do not wait for commands to time out).
+        if (!this.firstTest && !this.context.client.isHealthy()) {
+            LOGGER.error("Appium session is dead. Restart it.");
+            this.testSetupManager.restartSession();
+            if (this.context.navigationManager != null) {
+                this.context.navigationManager.resetNavigationToLastOpenedPage();
+            }
+            this.context.lastTestResult = ITestResult.SKIP;
+        }
+
         // Perform actions when previous test passed.
         if (this.context.lastTestResult == ITestResult.SUCCESS && this.settings.restartApp && !this.firstTest) {
             this.context.app.restart();
@@ -163,12 +193,20 @@ public abstract class UIBaseTest extends BaseTest {
 
     /**
      * Navigate to appropriate page.
+     * Release device if tests are executed on multiple devices.
      */
     @AfterClass(alwaysRun = true)
     public void afterClassUIBaseTest() {
-        if (this.context.navigationManager != null) {
-            this.context.navigationManager.navigateToHomePage();
-            this.context.navigationManager = null;
+        try {
+            if (this.context.navigationManager != null) {
+                this.context.navigationManager.navigateToHomePage();
+                this.context.navigationManager = null;
+            }
+        } finally {
+            if (this.leasedDevice != null) {
+                DevicePool.getInstance().release(this.leasedDevice);
+                this.leasedDevice = null;
+            }
         }
     }
 
@@ -183,8 +221,12 @@ public abstract class UIBaseTest extends BaseTest {
      */
     @AfterSuite(alwaysRun = true)
     public void afterSuiteUIBaseTest() throws Exception {
-        this.testContextSetupManager.device.logPerfInfo();
-        this.testSetupManager.fullStop();
+        if (TestContextSetupManager.isParallel()) {
+            DevicePool.getInstance().stop();
+        } else {
+            this.testContextSetupManager.device.logPerfInfo();
+            this.testSetupManager.fullStop();
+        }
     }
 
     /**
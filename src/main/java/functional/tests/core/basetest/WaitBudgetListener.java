@@ -0,0 +1,30 @@
+package functional.tests.core.basetest;
+
+import functional.tests.core.find.WaitBudget;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestResult;
+
+/**
+ * Start time budget of test (see WaitBudget) right before test method and stop it right after it.
+ * Setup and teardown of test (restart of app, screenshots, logs) are not counted in budget.
+ * Registered by BaseTest, so it is used by all tests.
+ */
+public class WaitBudgetListener implements IInvokedMethodListener {
+
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        Object instance = method.getTestMethod().getInstance();
+        if (method.isTestMethod() && instance instanceof BaseTest) {
+            WaitBudget.start(method.getTestMethod().getMethodName(),
+                    ((BaseTest) instance).getTimeBudget(method.getTestMethod().getConstructorOrMethod().getMethod()));
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (method.isTestMethod()) {
+            WaitBudget.stop();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package functional.tests.core.device;
+
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.utils.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Durations of device boot phases (launch, boot, unlock and tasks executed in parallel with boot).
+ * Timings are logged and appended to CSV file, so boot time regressions can be tracked between runs.
+ */
+public class BootTimings {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("BootTimings");
+
+    private final Map<String, Long> startTimes;
+    private final Map<String, Long> durations;
+
+    /**
+     * Init boot timings.
+     */
+    public BootTimings() {
+        this.startTimes = new LinkedHashMap<>();
+        this.durations = new LinkedHashMap<>();
+    }
+
+    /**
+     * Mark start of boot phase.
+     *
+     * @param phase Name of phase.
+     */
+    public synchronized void start(String phase) {
+        this.startTimes.put(phase, System.currentTimeMillis());
+    }
+
+    /**
+     * Mark end of boot phase.
+     *
+     * @param phase Name of phase.
+     * @return Duration of phase in milliseconds (-1 if phase is not started).
+     */
+    public synchronized long stop(String phase) {
+        Long startTime = this.startTimes.remove(phase);
+        if (startTime == null) {
+            LOGGER_BASE.debug("Phase " + phase + " is not started.");
+            return -1;
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        this.durations.put(phase, duration);
+        return duration;
+    }
+
+    /**
+     * Record duration of boot phase.
+     *
+     * @param phase    Name of phase.
+     * @param duration Duration in milliseconds.
+     */
+    public synchronized void record(String phase, long duration) {
+        this.durations.put(phase, duration);
+    }
+
+    /**
+     * Get duration of completed boot phases.
+     *
+     * @return Durations in milliseconds (in order of completion).
+     */
+    public synchronized Map<String, Long> getDurations() {
+        return new LinkedHashMap<>(this.durations);
+    }
+
+    /**
+     * Get duration of boot phase.
+     *
+     * @param phase Name of phase.
+     * @return Duration in milliseconds (-1 if phase is not completed).
+     */
+    public synchronized long getDuration(String phase) {
+        Long duration = this.durations.get(phase);
+        return duration == null ? -1 : duration;
+    }
+
+    /**
+     * Log durations of all completed phases.
+     */
+    public void log() {
+        for (Map.Entry<String, Long> entry : this.getDurations().entrySet()) {
+            LOGGER_BASE.info("Boot phase " + entry.getKey() + ": " + entry.getValue() + " ms.");
+        }
+    }
+
+    /**
+     * Append durations to CSV file (one row per phase, rows of same boot share timestamp).
+     * Header is written only when file does not exist.
+     *
+     * @param filePath Path to CSV file.
+     * @throws IOException When fail to write in file.
+     */
+    public void writeToFile(String filePath) throws IOException {
+        long timestamp = System.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        if (!FileSystem.exist(filePath)) {
+            sb.append("Timestamp,Phase,Duration");
+            sb.append('\n');
+        }
+        for (Map.Entry<String, Long> entry : this.getDurations().entrySet()) {
+            sb.append(timestamp);
+            sb.append(",");
+            sb.append(entry.getKey());
+            sb.append(",");
+            sb.append(entry.getValue());
+            sb.append('\n');
+        }
+
+        FileSystem.ensureFolderExists(new File(filePath).getParent());
+        FileSystem.appendFile(filePath, sb.toString());
+    }
+}
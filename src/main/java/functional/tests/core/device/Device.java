@@ -21,7 +21,10 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -35,6 +38,7 @@ public class Device {
     private Client client;
     private Context context;
     private Dimension windowSize;
+    private Map<String, Callable<?>> bootTasks;
 
     /**
      * Init device object.
@@ -46,6 +50,7 @@ public class Device {
         this.client = this.context.client;
         this.client = this.context.client;
         this.settings = this.context.settings;
+        this.bootTasks = new LinkedHashMap<>();
     }
 
     /**
@@ -104,8 +109,24 @@ public class Device {
      * @throws MobileAppException When app fail to start.
      */
     public void start() throws DeviceException, TimeoutException, MobileAppException {
+        this.boot();
+        this.startSession();
+    }
+
+    /**
+     * Boot device and prepare app under test (appium session is not started).
+     * Boot tasks are executed in parallel with emulator boot (see addBootTask).
+     *
+     * @throws DeviceException  When device is not available.
+     * @throws TimeoutException When fail to start device in specified time.
+     */
+    public void boot() throws DeviceException, TimeoutException {
         if (this.settings.platform == PlatformType.Andorid) {
-            this.device = new AndroidDevice(this.context);
+            AndroidDevice androidDevice = new AndroidDevice(this.context);
+            for (Map.Entry<String, Callable<?>> task : this.bootTasks.entrySet()) {
+                androidDevice.addBootTask(task.getKey(), task.getValue());
+            }
+            this.device = androidDevice;
         } else if (this.settings.platform == PlatformType.iOS) {
             this.device = new IOSDevice(this.context);
         } else {
@@ -114,7 +135,19 @@ public class Device {
             throw new DeviceException(error);
         }
 
-        this.device = this.device.start();
+        this.device = this.device.boot();
+    }
+
+    /**
+     * Start appium session on booted device.
+     * 1. Start appium session.
+     * 2. Ensure app is running.
+     *
+     * @throws MobileAppException When app fail to start.
+     */
+    public void startSession() throws MobileAppException {
+        // Start appium client (this will install app under test)
+        this.client.initDriver();
 
         // Verify app is running.
         this.verifyAppRunning(this.settings.packageId);
@@ -125,6 +158,42 @@ public class Device {
         this.windowSize = this.client.driver.manage().window().getSize();
     }
 
+    /**
+     * Add task that will be executed in parallel with emulator boot (on next start).
+     * Task should not depend on the device.
+     * Notes: Only Android emulators boot in pipeline, for other devices tasks are ignored.
+     *
+     * @param name Name of the task (used as name of phase in boot timings).
+     * @param task Task.
+     */
+    public void addBootTask(String name, Callable<?> task) {
+        this.bootTasks.put(name, task);
+    }
+
+    /**
+     * Remove boot tasks, so they are not executed on next start.
+     * Used when tasks are scheduled by caller (see SuiteBootstrap).
+     *
+     * @return Boot tasks.
+     */
+    public Map<String, Callable<?>> takeBootTasks() {
+        Map<String, Callable<?>> tasks = new LinkedHashMap<>(this.bootTasks);
+        this.bootTasks.clear();
+        return tasks;
+    }
+
+    /**
+     * Get durations of boot phases of last device start.
+     *
+     * @return Boot timings. Null if device is not started or platform does not track boot phases.
+     */
+    public BootTimings getBootTimings() {
+        if (this.device != null && this.settings.platform == PlatformType.Andorid) {
+            return this.device.android().getBootTimings();
+        }
+        return null;
+    }
+
     /**
      * Stop device (kills emulator/simulator).
      */
@@ -54,6 +54,16 @@ public interface IDevice {
      */
     IDevice start() throws DeviceException, TimeoutException;
 
+    /**
+     * Boot device and prepare app under test, but do not start appium client.
+     * Appium client should be started with Client.initDriver() when device is ready.
+     *
+     * @return Device object.
+     * @throws DeviceException  When fail to create emulator or simulator.
+     * @throws TimeoutException When device fails to boot or not attached to host.
+     */
+    IDevice boot() throws DeviceException, TimeoutException;
+
     /**
      * Stop emulators/simulators.
      */
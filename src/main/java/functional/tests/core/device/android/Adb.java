@@ -14,16 +14,19 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * TODO(dtopuzov): Add docs.
  */
 public class Adb {
 
-    private static final String ADB_PATH = System.getenv("ANDROID_HOME") + File.separator + "platform-tools" + File.separator + "adb";
+    static final String ADB_PATH = System.getenv("ANDROID_HOME") + File.separator + "platform-tools" + File.separator + "adb";
     private static final String ANDROID_PATH = System.getenv("ANDROID_HOME") + File.separator + "tools" + File.separator + "android";
     private static final String EMULATOR_PATH = System.getenv("ANDROID_HOME") + File.separator + "tools" + File.separator + "emulator";
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("Adb");
+    private static volatile String installHelp;
     private String emulatorStartLogPath;
     private Settings settings;
 
@@ -183,30 +186,152 @@ public class Adb {
     }
 
     /**
-     * TODO(dtopuzov): Add docs.
+     * Install app under test.
+     * Install is skipped if the same apk (same versionCode and SHA-256) is already installed.
+     * Otherwise previous version is uninstalled and apk is installed (streamed or incremental if supported).
      *
-     * @param testAppName
-     * @param packageId
-     * @throws IOException
+     * @param testAppName Name of apk file in testapp folder.
+     * @param packageId   Package id of the app.
+     * @throws IOException When fail to install the app.
      */
     public void installApp(String testAppName, String packageId) throws IOException {
-        boolean appInstalled;
-        appInstalled = this.isAppInstalled(packageId);
-        if (appInstalled) {
+        this.installAppIfChanged(testAppName, packageId);
+    }
+
+    /**
+     * Install app under test only if it is not installed or installed apk is different.
+     *
+     * @param testAppName Name of apk file in testapp folder.
+     * @param packageId   Package id of the app.
+     * @return True if app is installed, false if install is skipped.
+     * @throws IOException When fail to install the app.
+     */
+    protected boolean installAppIfChanged(String testAppName, String packageId) throws IOException {
+        String apkPath = this.settings.BASE_TEST_APP_DIR + File.separator + testAppName;
+        String installedApkPath = this.getInstalledApkPath(this.settings.deviceId, packageId);
+        if (installedApkPath != null) {
+            if (this.isSameApk(apkPath, installedApkPath, packageId)) {
+                LOGGER_BASE.info(packageId + " is already installed from the same apk. Skip install.");
+                return false;
+            }
             LOGGER_BASE.info("Uninstall a previous version " + packageId + " app.");
             this.uninstallApp(packageId);
         }
 
-        String apkPath = this.settings.BASE_TEST_APP_DIR + File.separator + testAppName;
         LOGGER_BASE.info("Installing " + apkPath + " ...");
-        String output = this.runAdbCommand(this.settings.deviceId, "install -r " + apkPath);
+        String output = this.runAdbCommand(this.settings.deviceId, "install -r " + this.getInstallOptions(apkPath) + apkPath);
         LOGGER_BASE.info(output);
 
-        appInstalled = this.isAppInstalled(packageId);
-        if (!appInstalled) {
+        if (this.getInstalledApkPath(this.settings.deviceId, packageId) == null) {
             LOGGER_BASE.error("Failed to install" + apkPath + "!");
             throw new IOException("Failed to install" + apkPath + "!");
         }
+        return true;
+    }
+
+    /**
+     * Clear data of app (faster than reinstall when only clean state is required).
+     *
+     * @param appId Package id of the app.
+     */
+    protected void clearAppData(String appId) {
+        String output = this.runAdbCommand(this.settings.deviceId, "shell pm clear " + appId);
+        LOGGER_BASE.debug("Clear data of " + appId + ": " + output.trim());
+    }
+
+    /**
+     * Get path of installed apk (pm path).
+     *
+     * @param deviceId  Device id.
+     * @param packageId Package id of the app.
+     * @return Path of base apk on device (null if app is not installed).
+     */
+    protected String getInstalledApkPath(String deviceId, String packageId) {
+        String output = this.runAdbCommand(deviceId, "shell pm path " + packageId);
+        String apkPath = null;
+        for (String line : output.split("\\r?\\n")) {
+            line = line.trim();
+            if (line.startsWith("package:")) {
+                // Split apks: path of base.apk has priority.
+                if (apkPath == null || line.endsWith("base.apk")) {
+                    apkPath = line.replace("package:", "").trim();
+                }
+            }
+        }
+        return apkPath;
+    }
+
+    /**
+     * Check if installed apk is the same as local apk.
+     * Compare versionCode first (cheap) and then SHA-256 of apk calculated on device.
+     *
+     * @param apkPath          Path to local apk.
+     * @param installedApkPath Path of installed apk on device.
+     * @param packageId        Package id of the app.
+     * @return True if apk is the same.
+     */
+    private boolean isSameApk(String apkPath, String installedApkPath, String packageId) {
+        String apkVersionCode = this.settings.android.versionCode;
+        String installedVersionCode = this.getInstalledVersionCode(packageId);
+        if (apkVersionCode != null && installedVersionCode != null && !apkVersionCode.equals(installedVersionCode)) {
+            LOGGER_BASE.info("Installed " + packageId + " has versionCode " + installedVersionCode + ", apk has " + apkVersionCode + ".");
+            return false;
+        }
+
+        String installedSha256 = this.runAdbCommand(this.settings.deviceId, "shell sha256sum " + installedApkPath).trim();
+        if (!installedSha256.matches("^[0-9a-f]{64}\\s.*")) {
+            LOGGER_BASE.debug("Failed to get checksum of installed apk: " + installedSha256);
+            return false;
+        }
+
+        try {
+            return installedSha256.startsWith(FileSystem.getSha256(apkPath));
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to get checksum of " + apkPath + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Get versionCode of installed app.
+     *
+     * @param packageId Package id of the app.
+     * @return Version code (null if not available).
+     */
+    private String getInstalledVersionCode(String packageId) {
+        // Output is filtered by regex (pipe would run grep on host, not on device).
+        String output = this.runAdbCommand(this.settings.deviceId, "shell dumpsys package " + packageId);
+        Matcher matcher = Pattern.compile("versionCode=(\\d+)").matcher(output);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+        return null;
+    }
+
+    /**
+     * Get options for adb install.
+     * Incremental install is used when adb supports it, device is Android 11+ and apk has v4 signature (.idsig file).
+     * Streamed install is used when adb supports it and device is Android 7+.
+     *
+     * @param apkPath Path to apk.
+     * @return Install options (empty string or options followed by space).
+     */
+    private String getInstallOptions(String apkPath) {
+        // Help is the same for all devices, so it is shared (devices might be installed in parallel).
+        String help = Adb.installHelp;
+        if (help == null) {
+            help = this.runAdbCommand("help 2>&1");
+            Adb.installHelp = help;
+        }
+
+        if (help.contains("--incremental") && this.settings.platformVersion >= 11.0
+                && FileSystem.exist(apkPath + ".idsig")) {
+            return "--incremental ";
+        }
+        if (help.contains("--streaming") && this.settings.platformVersion >= 7.0) {
+            return "--streaming ";
+        }
+        return "";
     }
 
     /**
@@ -303,15 +428,58 @@ public class Adb {
      * @param port
      */
     protected void startEmulator(String avdName, int port) {
+        this.startEmulator(avdName, port, null);
+    }
+
+    /**
+     * Start emulator with additional options (appended after emulatorOptions from settings).
+     *
+     * @param avdName      Name of emulator image.
+     * @param port         Console port of emulator.
+     * @param extraOptions Additional emulator options (for example snapshot options). Ignored if null.
+     */
+    protected void startEmulator(String avdName, int port, String extraOptions) {
         String command = EMULATOR_PATH + " -port " + port + " -avd " + avdName;
         if (this.settings.android.emulatorOptions != null) {
             command = command + " " + this.settings.android.emulatorOptions;
         }
+        if (extraOptions != null) {
+            command = command + " " + extraOptions;
+        }
         command = command + " > " + this.emulatorStartLogPath + " 2>&1";
         LOGGER_BASE.info("Starting emulator with command: " + command);
         OSUtils.runProcess(false, Integer.MAX_VALUE, command);
     }
 
+    /**
+     * Save snapshot of running emulator.
+     *
+     * @param deviceId     Device id of emulator.
+     * @param snapshotName Name of snapshot.
+     * @return True if emulator reports snapshot is saved.
+     */
+    protected boolean saveSnapshot(String deviceId, String snapshotName) {
+        LOGGER_BASE.info("Save snapshot " + snapshotName + " of " + deviceId);
+        String output = this.runAdbCommand(deviceId, "emu avd snapshot save " + snapshotName);
+        if (output != null && output.contains("OK")) {
+            LOGGER_BASE.info("Snapshot " + snapshotName + " saved.");
+            return true;
+        } else {
+            LOGGER_BASE.error("Failed to save snapshot " + snapshotName + ". Error: " + output);
+            return false;
+        }
+    }
+
+    /**
+     * Stop single emulator (other emulators on the host are not affected).
+     *
+     * @param deviceId Device id of emulator.
+     */
+    protected void stopEmulator(String deviceId) {
+        this.runAdbCommand(deviceId, "emu kill");
+        LOGGER_BASE.info(deviceId + " killed.");
+    }
+
     /**
      * TODO(dtopuzov): Add docs.
      */
@@ -412,6 +580,45 @@ public class Adb {
         }
     }
 
+    /**
+     * Get path of emulator start log.
+     *
+     * @return Path of log file where emulator output is redirected.
+     */
+    protected String getEmulatorStartLogPath() {
+        return this.emulatorStartLogPath;
+    }
+
+    /**
+     * Start watcher process that exits when device boot is completed.
+     * Watcher waits for device and then polls sys.boot_completed and init.svc.bootanim properties on the device,
+     * so whole boot is tracked by single adb command instead of polling dumpsys from host.
+     *
+     * @param deviceId Device id.
+     * @return Watcher process (exit code 0 means boot is completed).
+     * @throws IOException When fail to start adb.
+     */
+    protected Process startBootCompletedWatcher(String deviceId) throws IOException {
+        String script = "while [ x$(getprop sys.boot_completed) != x1 ] || [ x$(getprop init.svc.bootanim) = xrunning ]; do sleep 1; done";
+
+        // Single quotes prevent host shell to evaluate $(getprop ...), cmd.exe does not evaluate it anyway.
+        String quote = this.settings.os == OSType.Windows ? "\"" : "'";
+        String command = ADB_PATH + " -s " + deviceId + " wait-for-device shell " + quote + script + quote;
+        LOGGER_BASE.debug("Wait for boot with command: " + command);
+        return OSUtils.startProcess(command);
+    }
+
+    /**
+     * Dismiss lock screen of device.
+     *
+     * @param deviceId Device id.
+     */
+    protected void dismissKeyguard(String deviceId) {
+        // wm dismiss-keyguard is available on Api23+, on older devices menu key unlocks default lock screen.
+        this.runAdbCommand(deviceId, "shell wm dismiss-keyguard");
+        this.unlock(deviceId);
+    }
+
     /**
      * TODO(dtopuzov): Add docs.
      *
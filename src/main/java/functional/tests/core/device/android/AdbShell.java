@@ -0,0 +1,188 @@
+package functional.tests.core.device.android;
+
+import functional.tests.core.find.Wait;
+import functional.tests.core.log.LoggerBase;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent adb shell of device.
+ * Commands are written to one long running "adb shell" process, so there is no adb process start per command.
+ * End of command output is detected by marker echoed after the command (with exit code of the command).
+ * Commands that do not complete in time fail with CommandTimeoutException (shell is restarted on next command),
+ * such command was sent to device and may still run, so callers should not repeat it.
+ */
+public class AdbShell {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("AdbShell");
+    private static final String MARKER = "__ADB_SHELL_DONE__";
+
+    private final String deviceId;
+    private final int timeOut;
+    private Process process;
+    private OutputStream input;
+    private BufferedReader output;
+
+    /**
+     * Init shell (process is started on first command).
+     *
+     * @param deviceId Device id.
+     * @param timeOut  Timeout of each command in seconds.
+     */
+    public AdbShell(String deviceId, int timeOut) {
+        this.deviceId = deviceId;
+        this.timeOut = timeOut;
+    }
+
+    /**
+     * Execute command in shell.
+     *
+     * @param command Shell command.
+     * @return Output of command.
+     * @throws IOException When shell is not available or command fails (non zero exit code).
+     * @throws CommandTimeoutException When command is sent, but does not complete in time.
+     */
+    public synchronized String exec(String command) throws IOException {
+        if (this.process == null || !this.process.isAlive()) {
+            this.start();
+        }
+
+        this.input.write((command + "; echo " + MARKER + "$?\n").getBytes(StandardCharsets.UTF_8));
+        this.input.flush();
+
+        long deadline = System.currentTimeMillis() + this.timeOut * 1000L;
+        StringBuilder result = new StringBuilder();
+        String line;
+        while ((line = this.readLine(command, deadline)) != null) {
+            int index = line.indexOf(MARKER);
+            if (index >= 0) {
+                result.append(line.substring(0, index));
+                String exitCode = line.substring(index + MARKER.length()).trim();
+                if (!"0".equals(exitCode)) {
+                    throw new IOException("Command '" + command + "' failed with exit code " + exitCode + ": " + result.toString().trim());
+                }
+                return result.toString();
+            }
+            result.append(line).append('\n');
+        }
+
+        this.close();
+        throw new IOException("Adb shell of " + this.deviceId + " is closed.");
+    }
+
+    /**
+     * Execute command with "adb exec-out" (binary safe output, no pty).
+     *
+     * @param command Shell command.
+     * @return Output of command.
+     * @throws IOException When command fails.
+     */
+    public String execOut(String command) throws IOException {
+        // Output goes to file, so waiting for the process can time out (reading the pipe would block).
+        File output = File.createTempFile("adb-exec-out", ".txt");
+        try {
+            Process execOut = new ProcessBuilder(Adb.ADB_PATH, "-s", this.deviceId, "exec-out", command)
+                    .redirectErrorStream(true).redirectOutput(output).start();
+            try {
+                if (!execOut.waitFor(this.timeOut, TimeUnit.SECONDS)) {
+                    execOut.destroyForcibly();
+                    throw new IOException("Command '" + command + "' did not complete in " + this.timeOut + " seconds.");
+                }
+            } catch (InterruptedException e) {
+                execOut.destroyForcibly();
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for '" + command + "'.");
+            }
+            String result = new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8);
+            if (execOut.exitValue() != 0) {
+                throw new IOException("Command '" + command + "' failed: " + result.trim());
+            }
+            return result;
+        } finally {
+            if (!output.delete()) {
+                output.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Stop shell process.
+     */
+    public synchronized void close() {
+        if (this.process != null) {
+            this.process.destroy();
+            this.process = null;
+            LOGGER_BASE.debug("Adb shell of " + this.deviceId + " closed.");
+        }
+    }
+
+    /**
+     * Read line of shell output.
+     *
+     * @param command  Command (used in error message).
+     * @param deadline Deadline (time in milliseconds, see System.currentTimeMillis()).
+     * @return Line (null if shell is closed).
+     * @throws IOException             When shell output can not be read.
+     * @throws CommandTimeoutException When line is not read before deadline (shell is closed).
+     */
+    private String readLine(String command, long deadline) throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            if (!this.output.ready()) {
+                if (!this.process.isAlive()) {
+                    return line.length() == 0 ? null : line.toString();
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    this.close();
+                    throw new CommandTimeoutException("Command '" + command + "' did not complete in " + this.timeOut + " seconds.");
+                }
+                Wait.sleep(10);
+                continue;
+            }
+            int c = this.output.read();
+            if (c == -1) {
+                return line.length() == 0 ? null : line.toString();
+            }
+            if (c == '\n') {
+                return line.toString();
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Start shell process.
+     *
+     * @throws IOException When adb can not be started.
+     */
+    private void start() throws IOException {
+        this.process = new ProcessBuilder(Adb.ADB_PATH, "-s", this.deviceId, "shell").redirectErrorStream(true).start();
+        this.input = this.process.getOutputStream();
+        this.output = new BufferedReader(new InputStreamReader(this.process.getInputStream(), StandardCharsets.UTF_8));
+        LOGGER_BASE.debug("Adb shell of " + this.deviceId + " started.");
+    }
+
+    /**
+     * Command is sent to shell, but does not complete in time.
+     */
+    public static class CommandTimeoutException extends IOException {
+
+        /**
+         * Command timeout exception.
+         *
+         * @param message Exception message.
+         */
+        public CommandTimeoutException(String message) {
+            super(message);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package functional.tests.core.device.android;
 import functional.tests.core.appium.Client;
 import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.device.BootTimings;
 import functional.tests.core.device.Device;
 import functional.tests.core.device.IDevice;
 import functional.tests.core.device.ios.IOSDevice;
@@ -13,14 +14,23 @@ import functional.tests.core.find.Wait;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import functional.tests.core.utils.FileSystem;
-import functional.tests.core.utils.OSUtils;
 import io.appium.java_client.android.AndroidDriver;
 import org.openqa.selenium.html5.Location;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -29,9 +39,13 @@ import java.util.concurrent.TimeoutException;
 public class AndroidDevice implements IDevice {
 
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("AndroidDevice");
+    private static final int MAX_PARALLEL_UNINSTALLS = 4;
     private Client client;
     private Adb adb;
     private Settings settings;
+    private BootTimings bootTimings;
+    private Map<String, Callable<?>> bootTasks;
+    private boolean bootedFromSnapshot;
     public int maxUsedMemory = -1;
     public int appLaunchTime = -1;
 
@@ -56,6 +70,8 @@ public class AndroidDevice implements IDevice {
         this.client = context.client;
         this.settings = context.settings;
         this.adb = new Adb(this.settings);
+        this.bootTimings = new BootTimings();
+        this.bootTasks = new LinkedHashMap<>();
     }
 
     @Override
@@ -84,6 +100,26 @@ public class AndroidDevice implements IDevice {
         return this.settings.deviceId;
     }
 
+    /**
+     * Get durations of emulator boot phases.
+     *
+     * @return Boot timings (empty if emulator was reused or device is not emulator).
+     */
+    public BootTimings getBootTimings() {
+        return this.bootTimings;
+    }
+
+    /**
+     * Add task that will be executed in parallel with emulator boot.
+     * Tasks are ignored if emulator is already running or device is not emulator.
+     *
+     * @param name Name of the task.
+     * @param task Task that does not depend on the emulator.
+     */
+    public void addBootTask(String name, Callable<?> task) {
+        this.bootTasks.put(name, task);
+    }
+
     /**
      * TODO(): Add docs.
      *
@@ -104,6 +140,16 @@ public class AndroidDevice implements IDevice {
 
     @Override
     public IDevice start() throws TimeoutException, DeviceException {
+        this.boot();
+
+        // Start appium client (this will install app under test)
+        this.client.initDriver();
+
+        return this;
+    }
+
+    @Override
+    public IDevice boot() throws TimeoutException, DeviceException {
 
         if (this.getType() == DeviceType.Emulator) {
             this.startEmulator();
@@ -114,17 +160,24 @@ public class AndroidDevice implements IDevice {
             this.startRealDevice();
         }
 
-        // Uninstall test apps
+        // Uninstall other test apps and install app under test (skipped if the same apk is already installed)
         if (!this.settings.debug) {
-            this.uninstallApps(Device.uninstallAppsList());
+            this.uninstallAppsExcept(Device.uninstallAppsList(), this.settings.packageId);
+            try {
+                if (!this.adb.installAppIfChanged(this.settings.testAppName, this.settings.packageId)
+                        && !this.bootedFromSnapshot) {
+                    // App is not reinstalled, so clean its state from previous run.
+                    this.adb.clearAppData(this.settings.packageId);
+                }
+            } catch (IOException e) {
+                // Appium client will try to install it again.
+                LOGGER_BASE.error(e.getMessage());
+            }
         }
 
         // Handle error activity
         this.adb.closeErrorActivty(this.getId());
 
-        // Start appium client (this will install app under test)
-        this.client.initDriver();
-
         return this;
     }
 
@@ -133,6 +186,9 @@ public class AndroidDevice implements IDevice {
         if (this.getType() == DeviceType.Emulator) {
             if (this.settings.debug) {
                 LOGGER_BASE.info("[DEBUG MODE] Skip emulator stop.");
+            } else if (this.settings.parallel) {
+                // Other emulators are used by tests running in parallel.
+                this.adb.stopEmulator(this.getId());
             } else {
                 this.adb.stopAllEmulators();
             }
@@ -186,15 +242,55 @@ public class AndroidDevice implements IDevice {
 
     @Override
     public void uninstallApps(List<String> uninstallAppsList) {
+        this.uninstallAppsExcept(uninstallAppsList, null);
+    }
+
+    /**
+     * Uninstall apps that match any of the ids in the list except one app.
+     *
+     * @param uninstallAppsList List of app ids (or parts of app ids).
+     * @param keepAppId         Id of app that should not be uninstalled (ignored if null).
+     */
+    public void uninstallAppsExcept(List<String> uninstallAppsList, String keepAppId) {
         List<String> installedApps = this.adb.getInstalledApps();
 
+        Set<String> appsToUninstall = new LinkedHashSet<>();
         for (String appToUninstall : uninstallAppsList) {
             for (String appId : installedApps) {
-                if (appId.contains(appToUninstall)) {
-                    this.adb.uninstallApp(appId);
+                if (appId.contains(appToUninstall) && !appId.equals(keepAppId)) {
+                    appsToUninstall.add(appId);
                 }
             }
         }
+        if (appsToUninstall.isEmpty()) {
+            return;
+        }
+
+        // Uninstall apps concurrently (each uninstall is separate adb command).
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(appsToUninstall.size(), MAX_PARALLEL_UNINSTALLS));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (final String appId : appsToUninstall) {
+                futures.add(executor.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        AndroidDevice.this.adb.uninstallApp(appId);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    LOGGER_BASE.error("Failed to uninstall app: " + e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
     }
 
     @Override
@@ -444,30 +540,69 @@ public class AndroidDevice implements IDevice {
         } else {
             // Create emulator (if it does not exists)
             if (this.settings.android.emulatorCreateOptions != null) {
+                this.bootTimings.start("create");
                 this.adb.createEmulator(this.getName(), this.settings.android.emulatorCreateOptions);
+                this.bootTimings.stop("create");
+            }
+
+            // Start, wait until emulator boot and unlock it.
+            EmulatorBootPipeline pipeline = new EmulatorBootPipeline(this.adb, this.settings, this.bootTimings);
+            if (this.context.imageUtils != null) {
+                pipeline.addTask("prefetch-images", new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        return AndroidDevice.this.context.imageUtils.prefetchExpectedImages();
+                    }
+                });
+            }
+            for (Map.Entry<String, Callable<?>> task : this.bootTasks.entrySet()) {
+                pipeline.addTask(task.getKey(), task.getValue());
             }
 
-            // Start
-            String port = this.getId().split("-")[1];
-            this.adb.startEmulator(this.getName(), Integer.valueOf(port));
-
-            // Wait until emulator boot
-            this.adb.waitUntilEmulatorBoot(this.getId(), this.settings.deviceBootTimeout);
-
-            // Unlock
-            int waitToUnlock = 6000;
-            while (this.adb.isLocked(this.getId()) && waitToUnlock >= 0) {
-                LOGGER_BASE.info("device is locked. Unlocking it ...");
-                this.adb.unlock(this.getId());
-                Wait.sleep(3000);
-                LOGGER_BASE.info("device locked: " + String.valueOf(this.adb.isLocked(this.getId())));
-                waitToUnlock -= 3000;
+            String snapshotName = this.settings.android.emulatorSnapshot;
+            if (snapshotName == null) {
+                pipeline.boot(this.getName(), this.getId());
+                return;
             }
 
-            if (this.adb.isLocked(this.getId())) {
-                LOGGER_BASE.info("device is locked. We couldn't unlock it!!!");
-                OSUtils.getScreenshot("HostOS_Emulator_Failed_UnLock", this.settings);
+            EmulatorSnapshot snapshot = new EmulatorSnapshot(this.settings, this.getName(), snapshotName);
+            String emulatorOptions = this.settings.android.emulatorOptions;
+            if (emulatorOptions != null && emulatorOptions.contains("-wipe-data")) {
+                LOGGER_BASE.warn("emulatorOptions contains -wipe-data, snapshot " + snapshotName + " will not be reused.");
+            }
+            if (snapshot.isValid()) {
+                LOGGER_BASE.info("Boot " + this.getName() + " from snapshot " + snapshotName + ".");
+                pipeline.boot(this.getName(), this.getId(), snapshot.getLoadOptions());
+                this.bootedFromSnapshot = true;
+            } else {
+                LOGGER_BASE.info("Cold boot " + this.getName() + " and create snapshot " + snapshotName + ".");
+                pipeline.boot(this.getName(), this.getId(), snapshot.getColdBootOptions());
+                this.createSnapshot(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Install app under test on booted emulator and save snapshot of it.
+     * Failure to create snapshot is not fatal, next run will cold boot again.
+     *
+     * @param snapshot Emulator snapshot.
+     */
+    private void createSnapshot(EmulatorSnapshot snapshot) {
+        this.bootTimings.start("snapshot");
+        try {
+            this.adb.installApp(this.settings.testAppName, this.settings.packageId);
+            if (this.adb.saveSnapshot(this.getId(), snapshot.getName())) {
+                snapshot.markCreated();
+                this.bootedFromSnapshot = true;
+                LOGGER_BASE.info("Snapshot " + snapshot.getName() + " created.");
+            } else {
+                LOGGER_BASE.error("Failed to create snapshot " + snapshot.getName() + ".");
             }
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to create snapshot " + snapshot.getName() + ": " + e.getMessage());
+        } finally {
+            this.bootTimings.stop("snapshot");
         }
     }
 
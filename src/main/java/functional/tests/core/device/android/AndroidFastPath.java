@@ -0,0 +1,178 @@
+package functional.tests.core.device.android;
+
+import functional.tests.core.appium.Client;
+import functional.tests.core.enums.PlatformType;
+import functional.tests.core.find.UITree;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.utils.LatencyRecorder;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
+
+/**
+ * Driverless fast path for simple Android steps.
+ * Hierarchy is read with "uiautomator dump" streamed over adb exec-out and taps, swipes and text are injected
+ * with "input" commands through persistent adb shell (see AdbShell), so Appium HTTP and instrumentation stack is skipped.
+ * Callers fall back to Appium when fast path fails, fast path is disabled after first failure of dump.
+ * Page snapshot of Appium client is invalidated after each input (input does not go through Appium client).
+ * Adb commands time out after COMMAND_TIMEOUT seconds.
+ * Notes: uiautomator dump uses the same UiAutomation connection as Appium instrumentation,
+ * so use fast path for navigation steps, not while Appium command is running.
+ * Latency of fast path and Appium fallback is recorded per operation (see logStatistics()).
+ */
+public class AndroidFastPath {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("AndroidFastPath");
+    private static final String DUMP_COMMAND = "uiautomator dump /dev/tty";
+    private static final int COMMAND_TIMEOUT = 10;
+
+    private final AdbShell shell;
+    private final Client client;
+    private final LatencyRecorder latencies;
+    private volatile boolean disabled;
+
+    /**
+     * Init fast path.
+     *
+     * @param deviceId Device id.
+     * @param client   Appium client (its page snapshot is invalidated after input).
+     */
+    public AndroidFastPath(String deviceId, Client client) {
+        this.shell = new AdbShell(deviceId, AndroidFastPath.COMMAND_TIMEOUT);
+        this.client = client;
+        this.latencies = new LatencyRecorder();
+    }
+
+    /**
+     * Check if fast path can be used.
+     *
+     * @return False if fast path failed before.
+     */
+    public boolean isAvailable() {
+        return !this.disabled;
+    }
+
+    /**
+     * Dump hierarchy of current screen.
+     *
+     * @return UI tree (null if dump fails, fast path is disabled after failure).
+     */
+    public UITree dump() {
+        if (this.disabled) {
+            return null;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            String output = this.shell.execOut(DUMP_COMMAND);
+            int start = output.indexOf('<');
+            int end = output.lastIndexOf('>');
+            if (start < 0 || end < start) {
+                throw new IOException(output.trim());
+            }
+            UITree tree = UITree.parse(output.substring(start, end + 1), PlatformType.Andorid);
+            this.record("fast dump", System.currentTimeMillis() - startTime);
+            return tree;
+        } catch (IOException | XMLStreamException e) {
+            LOGGER_BASE.error("Failed to dump hierarchy with uiautomator, use Appium instead: " + e.getMessage());
+            this.disabled = true;
+            return null;
+        }
+    }
+
+    /**
+     * Tap at point.
+     *
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @return True if tap is done (false if Appium should be used).
+     */
+    public boolean tap(int x, int y) {
+        return this.input("tap", "input tap " + x + " " + y);
+    }
+
+    /**
+     * Swipe from point to point.
+     *
+     * @param initialX Initial X coordinate.
+     * @param initialY Initial Y coordinate.
+     * @param finalX   Final X coordinate.
+     * @param finalY   Final Y coordinate.
+     * @param duration Duration in milliseconds.
+     * @return True if swipe is done (false if Appium should be used).
+     */
+    public boolean swipe(int initialX, int initialY, int finalX, int finalY, int duration) {
+        return this.input("swipe", "input swipe " + initialX + " " + initialY + " " + finalX + " " + finalY + " " + duration);
+    }
+
+    /**
+     * Type text in focused element.
+     *
+     * @param text Text (only printable ASCII characters except % are supported by input command).
+     * @return True if text is typed (false if Appium should be used).
+     */
+    public boolean inputText(String text) {
+        for (char c : text.toCharArray()) {
+            // Input command has no escape for %, so "%s" in text would be typed as space.
+            if (c < 0x20 || c > 0x7e || c == '%') {
+                return false;
+            }
+        }
+        // Spaces are typed as %s, text is quoted for device shell.
+        String value = text.replace(" ", "%s").replace("'", "'\\''");
+        return this.input("text", "input text '" + value + "'");
+    }
+
+    /**
+     * Record latency of operation.
+     *
+     * @param operation Operation (for example "fast tap" or "appium tap").
+     * @param time      Time in milliseconds.
+     */
+    public void record(String operation, long time) {
+        this.latencies.record(operation, time);
+    }
+
+    /**
+     * Log count, average and max latency per operation (fast path and Appium fallback).
+     */
+    public void logStatistics() {
+        this.latencies.log(LOGGER_BASE, "", "calls");
+    }
+
+    /**
+     * Stop adb shell.
+     */
+    public void close() {
+        this.shell.close();
+    }
+
+    /**
+     * Execute input command.
+     *
+     * @param operation Operation (used in statistics).
+     * @param command   Shell command.
+     * @return True if command succeeded or is sent but timed out (it may still run, so it is not repeated with Appium).
+     */
+    private boolean input(String operation, String command) {
+        if (this.disabled) {
+            return false;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            this.shell.exec(command);
+            this.record("fast " + operation, System.currentTimeMillis() - startTime);
+            return true;
+        } catch (AdbShell.CommandTimeoutException e) {
+            LOGGER_BASE.error("Failed to complete " + operation + " with adb, it is not repeated with Appium: " + e.getMessage());
+            return true;
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to " + operation + " with adb, use Appium instead: " + e.getMessage());
+            return false;
+        } finally {
+            // Page may be changed even if command failed (for example timed out).
+            this.client.snapshot.invalidate();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package functional.tests.core.device.android;
+
+import functional.tests.core.log.LoggerBase;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental reader of emulator start log (emulator.log).
+ * Each call of readNewLines() returns only lines appended after the previous call,
+ * so the log can be followed during boot without re-reading the whole file.
+ */
+public class EmulatorBootLog {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("EmulatorBootLog");
+
+    private File logFile;
+    private long offset;
+    private String pendingLine;
+    private String fatalError;
+
+    /**
+     * Init emulator boot log reader.
+     *
+     * @param logPath Path to emulator start log.
+     */
+    public EmulatorBootLog(String logPath) {
+        this.logFile = new File(logPath);
+        this.offset = 0;
+        this.pendingLine = "";
+    }
+
+    /**
+     * Read complete lines appended to log since last call.
+     *
+     * @return List of new lines (empty if there is nothing new or log does not exist).
+     */
+    public List<String> readNewLines() {
+        List<String> lines = new ArrayList<>();
+        if (!this.logFile.exists()) {
+            return lines;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(this.logFile, "r")) {
+            long length = file.length();
+            if (length < this.offset) {
+                // Log is re-created by new emulator start.
+                this.offset = 0;
+                this.pendingLine = "";
+            }
+            if (length == this.offset) {
+                return lines;
+            }
+
+            byte[] buffer = new byte[(int) (length - this.offset)];
+            file.seek(this.offset);
+            file.readFully(buffer);
+            this.offset = length;
+
+            String content = this.pendingLine + new String(buffer, Charset.defaultCharset());
+            String[] split = content.split("\\r?\\n", -1);
+
+            // Last element is not terminated by new line, keep it for next read.
+            for (int i = 0; i < split.length - 1; i++) {
+                if (!split[i].trim().isEmpty()) {
+                    lines.add(split[i]);
+                }
+            }
+            this.pendingLine = split[split.length - 1];
+        } catch (IOException e) {
+            LOGGER_BASE.debug("Failed to read " + this.logFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+
+        for (String line : lines) {
+            this.parseLine(line);
+        }
+
+        return lines;
+    }
+
+    /**
+     * Get fatal error reported by emulator (for example missing avd or unsupported acceleration).
+     *
+     * @return Fatal error line or null if no fatal error is reported.
+     */
+    public String getFatalError() {
+        return this.fatalError;
+    }
+
+    /**
+     * Parse single log line.
+     * Lines with PANIC or FATAL mean emulator process is about to exit, so waiting for boot is pointless.
+     * Emulator also logs ERROR lines that are not fatal (for example adb host server issues), those are only logged.
+     *
+     * @param line Log line.
+     */
+    private void parseLine(String line) {
+        String upperLine = line.toUpperCase();
+        if (upperLine.contains("PANIC") || upperLine.contains("FATAL")) {
+            LOGGER_BASE.error("Emulator: " + line);
+            if (this.fatalError == null) {
+                this.fatalError = line.trim();
+            }
+        } else if (upperLine.contains("ERROR")) {
+            LOGGER_BASE.warn("Emulator: " + line);
+        } else {
+            LOGGER_BASE.debug("Emulator: " + line);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package functional.tests.core.device.android;
+
+import functional.tests.core.device.BootTimings;
+import functional.tests.core.exceptions.DeviceException;
+import functional.tests.core.find.Wait;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.OSUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Emulator boot pipeline.
+ * 1. Launch emulator.
+ * 2. Wait until boot is completed with single device side watcher (sys.boot_completed and init.svc.bootanim).
+ * 3. Follow emulator log during boot and fail fast if emulator reports fatal error.
+ * 4. Unlock emulator.
+ * Independent tasks (for example prefetch of baseline images) are executed in parallel with the boot
+ * and joined before the pipeline completes. Duration of each phase is tracked in BootTimings.
+ */
+public class EmulatorBootPipeline {
+
+    public static final String PHASE_LAUNCH = "launch";
+    public static final String PHASE_BOOT = "boot";
+    public static final String PHASE_UNLOCK = "unlock";
+    public static final String PHASE_TOTAL = "total";
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("EmulatorBootPipeline");
+    private static final int POLL_INTERVAL = 1000;
+    private static final int UNLOCK_TIMEOUT = 6000;
+    private static final int UNLOCK_POLL_INTERVAL = 500;
+    private static final int SCREEN_OFF_TIMEOUT = 180000;
+
+    private Adb adb;
+    private Settings settings;
+    private BootTimings timings;
+    private Map<String, Callable<?>> tasks;
+
+    /**
+     * Init emulator boot pipeline.
+     *
+     * @param adb      Adb instance.
+     * @param settings Current settings.
+     * @param timings  Boot timings where durations of phases are recorded.
+     */
+    public EmulatorBootPipeline(Adb adb, Settings settings, BootTimings timings) {
+        this.adb = adb;
+        this.settings = settings;
+        this.timings = timings;
+        this.tasks = new LinkedHashMap<>();
+    }
+
+    /**
+     * Add task that will be executed in parallel with emulator boot.
+     * Task should not depend on the emulator. Failure of task fails the boot.
+     *
+     * @param name Name of the task (used as name of phase in boot timings).
+     * @param task Task.
+     */
+    public void addTask(String name, Callable<?> task) {
+        this.tasks.put(name, task);
+    }
+
+    /**
+     * Boot emulator.
+     *
+     * @param avdName  Name of emulator image.
+     * @param deviceId Device id (for example emulator-5600).
+     * @throws DeviceException  When emulator reports fatal error, watcher fails or parallel task fails.
+     * @throws TimeoutException When emulator fails to boot in deviceBootTimeout.
+     */
+    public void boot(String avdName, String deviceId) throws DeviceException, TimeoutException {
+        this.boot(avdName, deviceId, null);
+    }
+
+    /**
+     * Boot emulator with additional emulator options.
+     *
+     * @param avdName      Name of emulator image.
+     * @param deviceId     Device id (for example emulator-5600).
+     * @param extraOptions Additional emulator options (for example snapshot options). Ignored if null.
+     * @throws DeviceException  When emulator reports fatal error, watcher fails or parallel task fails.
+     * @throws TimeoutException When emulator fails to boot in deviceBootTimeout.
+     */
+    public void boot(String avdName, String deviceId, String extraOptions) throws DeviceException, TimeoutException {
+        this.timings.start(PHASE_TOTAL);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, this.tasks.size()));
+        try {
+            Map<String, Future<?>> futures = this.submitTasks(executor);
+
+            this.timings.start(PHASE_LAUNCH);
+            String port = deviceId.split("-")[1];
+            this.adb.startEmulator(avdName, Integer.valueOf(port), extraOptions);
+            this.timings.stop(PHASE_LAUNCH);
+
+            this.timings.start(PHASE_BOOT);
+            this.waitForBoot(deviceId, this.settings.deviceBootTimeout);
+            this.timings.stop(PHASE_BOOT);
+
+            this.timings.start(PHASE_UNLOCK);
+            this.unlock(deviceId);
+            this.timings.stop(PHASE_UNLOCK);
+
+            this.adb.setScreenOffTimeOut(deviceId, SCREEN_OFF_TIMEOUT);
+
+            this.joinTasks(futures);
+        } finally {
+            executor.shutdownNow();
+            this.timings.stop(PHASE_TOTAL);
+            this.timings.log();
+            try {
+                this.timings.writeToFile(this.settings.baseLogDir + File.separator + "bootTimings.csv");
+            } catch (IOException e) {
+                LOGGER_BASE.error("Failed to write boot timings: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Wait until boot is completed.
+     * Watcher is restarted if adb exits with error (for example device is offline at early boot stage).
+     *
+     * @param deviceId Device id.
+     * @param timeOut  Timeout in seconds.
+     * @throws DeviceException  When emulator reports fatal error or watcher can not be started.
+     * @throws TimeoutException When boot is not completed in timeout.
+     */
+    private void waitForBoot(String deviceId, int timeOut) throws DeviceException, TimeoutException {
+        EmulatorBootLog bootLog = new EmulatorBootLog(this.adb.getEmulatorStartLogPath());
+        long deadline = System.currentTimeMillis() + timeOut * 1000L;
+        Process watcher = null;
+        try {
+            watcher = this.adb.startBootCompletedWatcher(deviceId);
+            while (System.currentTimeMillis() < deadline) {
+                if (watcher.waitFor(POLL_INTERVAL, TimeUnit.MILLISECONDS)) {
+                    if (watcher.exitValue() == 0) {
+                        LOGGER_BASE.info(deviceId + " boot completed.");
+                        return;
+                    }
+                    LOGGER_BASE.debug("Boot watcher exit with code " + watcher.exitValue() + ". Restart it.");
+                    Wait.sleep(POLL_INTERVAL);
+                    watcher = this.adb.startBootCompletedWatcher(deviceId);
+                }
+
+                bootLog.readNewLines();
+                if (bootLog.getFatalError() != null) {
+                    String error = deviceId + " failed to boot: " + bootLog.getFatalError();
+                    LOGGER_BASE.fatal(error);
+                    throw new DeviceException(error);
+                }
+            }
+        } catch (IOException e) {
+            String error = "Failed to start boot watcher for " + deviceId + ": " + e.getMessage();
+            LOGGER_BASE.fatal(error);
+            throw new DeviceException(error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeviceException("Interrupted while waiting " + deviceId + " to boot.");
+        } finally {
+            if (watcher != null) {
+                watcher.destroy();
+            }
+        }
+
+        String error = deviceId + " failed to boot in " + String.valueOf(timeOut) + " seconds.";
+        LOGGER_BASE.fatal(error);
+        OSUtils.getScreenshot("HostOS_Failed_To_Boot_Emulator", this.settings);
+        throw new TimeoutException(error);
+    }
+
+    /**
+     * Unlock emulator.
+     * Dismiss keyguard once and verify with short polling interval.
+     *
+     * @param deviceId Device id.
+     */
+    private void unlock(String deviceId) {
+        long deadline = System.currentTimeMillis() + UNLOCK_TIMEOUT;
+        this.adb.dismissKeyguard(deviceId);
+        while (this.adb.isLocked(deviceId)) {
+            if (System.currentTimeMillis() > deadline) {
+                LOGGER_BASE.info("device is locked. We couldn't unlock it!!!");
+                OSUtils.getScreenshot("HostOS_Emulator_Failed_UnLock", this.settings);
+                return;
+            }
+            LOGGER_BASE.info("device is locked. Unlocking it ...");
+            Wait.sleep(UNLOCK_POLL_INTERVAL);
+            this.adb.unlock(deviceId);
+        }
+    }
+
+    /**
+     * Submit parallel tasks.
+     *
+     * @param executor Executor service.
+     * @return Futures of submitted tasks.
+     */
+    private Map<String, Future<?>> submitTasks(ExecutorService executor) {
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        for (final Map.Entry<String, Callable<?>> entry : this.tasks.entrySet()) {
+            futures.put(entry.getKey(), executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    EmulatorBootPipeline.this.timings.start(entry.getKey());
+                    try {
+                        return entry.getValue().call();
+                    } finally {
+                        EmulatorBootPipeline.this.timings.stop(entry.getKey());
+                    }
+                }
+            }));
+        }
+        return futures;
+    }
+
+    /**
+     * Wait for parallel tasks to complete.
+     *
+     * @param futures Futures of submitted tasks.
+     * @throws DeviceException When task fails.
+     */
+    private void joinTasks(Map<String, Future<?>> futures) throws DeviceException {
+        for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+            try {
+                entry.getValue().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DeviceException("Interrupted while waiting for " + entry.getKey() + ".");
+            } catch (ExecutionException e) {
+                String error = entry.getKey() + " failed during emulator boot: " + e.getCause();
+                LOGGER_BASE.fatal(error);
+                throw new DeviceException(error);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package functional.tests.core.device.android;
+
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.FileSystem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * Named quick-boot snapshot of emulator.
+ * Snapshot is taken from fully booted and unlocked emulator with app under test installed.
+ * Fingerprint of inputs (apk checksum, emulator options and device settings) is saved next to the snapshot,
+ * so snapshot is regenerated when any of the inputs change.
+ */
+public class EmulatorSnapshot {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("EmulatorSnapshot");
+    private static final String FINGERPRINT_KEY = "fingerprint";
+
+    private Settings settings;
+    private String avdName;
+    private String name;
+    private String fingerprint;
+
+    /**
+     * Init emulator snapshot.
+     *
+     * @param settings Current settings.
+     * @param avdName  Name of emulator image.
+     * @param name     Name of snapshot.
+     */
+    public EmulatorSnapshot(Settings settings, String avdName, String name) {
+        this.settings = settings;
+        this.avdName = avdName;
+        this.name = name;
+    }
+
+    /**
+     * Get name of snapshot.
+     *
+     * @return Name of snapshot.
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Check if snapshot exists and is created with current inputs.
+     *
+     * @return True if emulator can be booted from the snapshot.
+     */
+    public boolean isValid() {
+        if (!new File(this.getSnapshotPath()).exists()) {
+            LOGGER_BASE.info("Snapshot " + this.name + " of " + this.avdName + " does not exist.");
+            return false;
+        }
+
+        File metadataFile = new File(this.getMetadataPath());
+        if (!metadataFile.exists()) {
+            LOGGER_BASE.info("Snapshot " + this.name + " is not created by tests. Will regenerate it.");
+            return false;
+        }
+
+        Properties metadata = new Properties();
+        try (InputStream input = new FileInputStream(metadataFile)) {
+            metadata.load(input);
+            if (this.getFingerprint().equals(metadata.getProperty(FINGERPRINT_KEY))) {
+                return true;
+            }
+            LOGGER_BASE.info("Snapshot " + this.name + " is stale (test app or emulator settings changed).");
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to verify snapshot " + this.name + ": " + e.getMessage());
+        }
+
+        return false;
+    }
+
+    /**
+     * Save fingerprint of current inputs after snapshot is created.
+     *
+     * @throws IOException When fail to write metadata file.
+     */
+    public void markCreated() throws IOException {
+        File metadataFile = new File(this.getMetadataPath());
+        FileSystem.ensureFolderExists(metadataFile.getParent());
+
+        Properties metadata = new Properties();
+        metadata.setProperty(FINGERPRINT_KEY, this.getFingerprint());
+        try (OutputStream output = new FileOutputStream(metadataFile)) {
+            metadata.store(output, "Snapshot " + this.name + " of " + this.avdName);
+        }
+    }
+
+    /**
+     * Emulator options to boot from snapshot (snapshot is not overwritten on emulator exit).
+     *
+     * @return Emulator options.
+     */
+    public String getLoadOptions() {
+        return "-snapshot " + this.name + " -no-snapshot-save";
+    }
+
+    /**
+     * Emulator options for cold boot (used when snapshot should be regenerated).
+     *
+     * @return Emulator options.
+     */
+    public String getColdBootOptions() {
+        return "-no-snapshot-load -no-snapshot-save";
+    }
+
+    /**
+     * Get fingerprint of inputs of the snapshot.
+     *
+     * @return Fingerprint.
+     * @throws IOException When fail to calculate checksum of app under test.
+     */
+    private String getFingerprint() throws IOException {
+        if (this.fingerprint == null) {
+            String apkPath = Settings.BASE_TEST_APP_DIR + File.separator + this.settings.testAppName;
+            this.fingerprint = FileSystem.getSha256(apkPath)
+                    + "|" + this.settings.packageId
+                    + "|" + this.settings.platformVersion
+                    + "|" + this.settings.android.emulatorCreateOptions
+                    + "|" + this.settings.android.emulatorOptions;
+        }
+        return this.fingerprint;
+    }
+
+    /**
+     * Get path of snapshot created by emulator.
+     *
+     * @return Path to snapshot folder.
+     */
+    private String getSnapshotPath() {
+        return getAvdHome() + File.separator + this.avdName + ".avd"
+                + File.separator + "snapshots" + File.separator + this.name;
+    }
+
+    /**
+     * Get path of file with fingerprint of the snapshot.
+     *
+     * @return Path to metadata file.
+     */
+    private String getMetadataPath() {
+        return Settings.FRAMEWORK_HOME_DIR + File.separator + "snapshots"
+                + File.separator + this.avdName + "." + this.name + ".properties";
+    }
+
+    /**
+     * Get folder where emulator images are stored.
+     *
+     * @return Path to avd folder.
+     */
+    private static String getAvdHome() {
+        String avdHome = System.getenv("ANDROID_AVD_HOME");
+        if (avdHome != null) {
+            return avdHome;
+        }
+
+        String sdkHome = System.getenv("ANDROID_SDK_HOME");
+        if (sdkHome == null) {
+            sdkHome = System.getProperty("user.home");
+        }
+        return sdkHome + File.separator + ".android" + File.separator + "avd";
+    }
+}
@@ -6,6 +6,7 @@ import functional.tests.core.basetest.TestContextSetupManager;
 import functional.tests.core.device.Device;
 import functional.tests.core.device.IDevice;
 import functional.tests.core.device.android.AndroidDevice;
+import functional.tests.core.element.UIElement;
 import functional.tests.core.enums.DeviceType;
 import functional.tests.core.exceptions.DeviceException;
 import functional.tests.core.exceptions.MobileAppException;
@@ -14,7 +15,6 @@ import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import functional.tests.core.utils.FileSystem;
 import functional.tests.core.utils.OSUtils;
-import io.appium.java_client.MobileElement;
 import io.appium.java_client.ios.IOSDriver;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
@@ -100,6 +100,15 @@ public class IOSDevice implements IDevice {
 
     @Override
     public IDevice start() throws DeviceException {
+        this.boot();
+
+        // Start Appium Client
+        this.client.initDriver();
+        return this;
+    }
+
+    @Override
+    public IDevice boot() throws DeviceException {
 
         // Stop simulators if reuseDevice=false
         if (!this.settings.reuseDevice && !this.settings.debug) {
@@ -117,8 +126,6 @@ public class IOSDevice implements IDevice {
 
         }
 
-        // Start Appium Client
-        this.client.initDriver();
         return this;
     }
 
@@ -427,12 +434,12 @@ public class IOSDevice implements IDevice {
                         "{ x = target.deactivateAppForDuration(2); retry_count += 1}; x");
             } catch (WebDriverException e) {
                 if (e.getMessage().contains("An error occurred while executing user supplied JavaScript")) {
-                    this.client.getDriver().findElement(By.id(this.settings.testAppFriendlyName)).click();
+                    this.context.find.byLocator(By.id(this.settings.testAppFriendlyName)).click();
                 } else {
                     // This hack workarounds run in background issue on iOS9
                     By appLocator = By.xpath("//UIAScrollView[@name='AppSwitcherScrollView']/UIAElement");
 
-                    MobileElement element = (MobileElement) this.client.getDriver().findElement(appLocator);
+                    UIElement element = this.context.find.byLocator(appLocator);
                     int offset = 5; // 5px offset within the top-left corner of element
                     Point elementTopLeft = element.getLocation();
                     this.client.getDriver().tap(1, elementTopLeft.x + offset, elementTopLeft.y + offset, 500);
@@ -4,12 +4,14 @@ import functional.tests.core.find.Wait;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import functional.tests.core.utils.FileSystem;
+import functional.tests.core.utils.HostEnvironment;
 import functional.tests.core.utils.OSUtils;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,7 +34,30 @@ public class Simctl {
         this.udids = this.getSimulatorUdidsByName(this.settings.deviceName);
     }
 
-    public static String getSimulatorId(String simulatorName) {
+    /**
+     * Get id of simulator.
+     * Id is cached between runs while simulators are not created or deleted (see HostEnvironment).
+     *
+     * @param simulatorName Name of simulator.
+     * @return Id of simulator (empty string if simulator does not exist).
+     */
+    public static String getSimulatorId(final String simulatorName) {
+        String devicesFolder = System.getProperty("user.home") + "/Library/Developer/CoreSimulator/Devices";
+        return HostEnvironment.get("simulator.id." + simulatorName, devicesFolder, new Callable<String>() {
+            @Override
+            public String call() {
+                return Simctl.findSimulatorId(simulatorName);
+            }
+        });
+    }
+
+    /**
+     * Find id of simulator (via instruments -s).
+     *
+     * @param simulatorName Name of simulator.
+     * @return Id of simulator (empty string if simulator does not exist).
+     */
+    private static String findSimulatorId(String simulatorName) {
         String simulatorData = OSUtils.runProcess(String.format("instruments -s | grep \"%s\"", simulatorName));
 
         Pattern pattern = Pattern.compile("\\[(.*?)\\]");
@@ -0,0 +1,252 @@
+package functional.tests.core.element;
+
+import functional.tests.core.basetest.Context;
+import functional.tests.core.log.LoggerBase;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * Element bound to locator and resolved on first use.
+ * Found element is cached, so repeated actions on the same control cost one lookup.
+ * Element is found again once when action fails with StaleElementReferenceException,
+ * after page transition of NavigationManager (see Context.pageChanged()) and after Appium session is
+ * (re)started (for example by TestSetupManager.restartSession() or swap to standby server).
+ */
+public class LazyElement {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("LazyElement");
+
+    private final By locator;
+    private final int timeOut;
+    private final Context context;
+    private UIElement element;
+    private int pageVersion;
+    private AppiumDriver<?> driver;
+
+    /**
+     * Init element (default timeout is used for lookups).
+     *
+     * @param locator Locator.
+     * @param context Test context.
+     */
+    public LazyElement(By locator, Context context) {
+        this(locator, context.settings.defaultTimeout, context);
+    }
+
+    /**
+     * Init element.
+     *
+     * @param locator Locator.
+     * @param timeOut Timeout of lookups in seconds.
+     * @param context Test context.
+     */
+    public LazyElement(By locator, int timeOut, Context context) {
+        this.locator = locator;
+        this.timeOut = timeOut;
+        this.context = context;
+    }
+
+    /**
+     * Get locator of element.
+     *
+     * @return Locator.
+     */
+    public By getLocator() {
+        return this.locator;
+    }
+
+    /**
+     * Get element (found on first call, after invalidate(), after page transition and after new session is started).
+     *
+     * @return Element.
+     * @throws NoSuchElementException When element is not found in time.
+     */
+    public synchronized UIElement get() {
+        int currentPageVersion = this.context.getPageVersion();
+        AppiumDriver<?> currentDriver = this.context.client.driver;
+        if (this.element == null || this.pageVersion != currentPageVersion || this.driver != currentDriver) {
+            UIElement found = this.context.find.byLocator(this.locator, this.timeOut);
+            if (found == null) {
+                this.element = null;
+                throw new NoSuchElementException("Failed to find element by " + this.locator + " in " + this.timeOut + " seconds.");
+            }
+            this.element = found;
+            this.pageVersion = currentPageVersion;
+            this.driver = currentDriver;
+        }
+        return this.element;
+    }
+
+    /**
+     * Drop cached element (next action finds element again).
+     */
+    public synchronized void invalidate() {
+        this.element = null;
+    }
+
+    /**
+     * Check if element exists and is displayed.
+     *
+     * @return True if element is displayed (false if element is not found in time).
+     */
+    public boolean isDisplayed() {
+        try {
+            return this.perform(new ElementAction<Boolean>() {
+                @Override
+                public Boolean run(UIElement element) {
+                    return element.isDisplayed();
+                }
+            });
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Get text.
+     *
+     * @return Text.
+     */
+    public String getText() {
+        return this.perform(new ElementAction<String>() {
+            @Override
+            public String run(UIElement element) {
+                return element.getText();
+            }
+        });
+    }
+
+    /**
+     * Get attribute.
+     *
+     * @param name Name of attribute.
+     * @return Value of attribute.
+     */
+    public String getAttribute(final String name) {
+        return this.perform(new ElementAction<String>() {
+            @Override
+            public String run(UIElement element) {
+                return element.getAttribute(name);
+            }
+        });
+    }
+
+    /**
+     * Click.
+     */
+    public void click() {
+        this.perform(new ElementAction<Void>() {
+            @Override
+            public Void run(UIElement element) {
+                element.click();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Tap.
+     */
+    public void tap() {
+        this.perform(new ElementAction<Void>() {
+            @Override
+            public Void run(UIElement element) {
+                element.tap();
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Send keys.
+     *
+     * @param value Text.
+     */
+    public void sendKeys(final String value) {
+        this.perform(new ElementAction<Void>() {
+            @Override
+            public Void run(UIElement element) {
+                element.sendKeys(value);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Set text (see UIElement.setText()).
+     *
+     * @param value Text.
+     */
+    public void setText(final String value) {
+        this.perform(new ElementAction<Void>() {
+            @Override
+            public Void run(UIElement element) {
+                element.setText(value);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Run action on element, find element again and retry once if element is stale
+     * or session is restarted while action runs.
+     *
+     * @param action Action.
+     * @param <T>    Type of result.
+     * @return Result of action.
+     */
+    public <T> T perform(ElementAction<T> action) {
+        try {
+            return action.run(this.get());
+        } catch (StaleElementReferenceException e) {
+            LOGGER_BASE.debug("Element by " + this.locator + " is stale, find it again.");
+            this.invalidate();
+            return action.run(this.get());
+        } catch (WebDriverException e) {
+            if (!this.isSessionChanged()) {
+                throw e;
+            }
+            LOGGER_BASE.debug("Session of element by " + this.locator + " is restarted, find it again.");
+            this.invalidate();
+            return action.run(this.get());
+        }
+    }
+
+    /**
+     * Check if element is found in other session than current session of client.
+     *
+     * @return True if element is found and current driver of client is not the driver element is found with.
+     */
+    private synchronized boolean isSessionChanged() {
+        return this.element != null && this.driver != this.context.client.driver;
+    }
+
+    /**
+     * Describe element (used in logs).
+     *
+     * @return Description.
+     */
+    @Override
+    public String toString() {
+        return "lazy element by " + this.locator;
+    }
+
+    /**
+     * Action on element.
+     *
+     * @param <T> Type of result.
+     */
+    public interface ElementAction<T> {
+
+        /**
+         * Run action.
+         *
+         * @param element Element.
+         * @return Result.
+         */
+        T run(UIElement element);
+    }
+}
@@ -0,0 +1,208 @@
+package functional.tests.core.element;
+
+import functional.tests.core.appium.Client;
+import functional.tests.core.device.android.AndroidFastPath;
+import functional.tests.core.enums.PlatformType;
+import functional.tests.core.find.UITree;
+import functional.tests.core.find.WaitEngine;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import io.appium.java_client.MobileElement;
+import io.appium.java_client.TouchAction;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.Point;
+
+/**
+ * Element of page snapshot (see PageSnapshot).
+ * Attributes and bounds are read from UI tree of snapshot, taps are done by coordinates (no find on server).
+ * Elements found in uiautomator dump tap and type with adb input (see AndroidFastPath), with fallback to Appium.
+ * Use toUIElement() for other actions.
+ */
+public class SnapshotElement extends UIRectangle {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("SnapshotElement");
+
+    private final UITree tree;
+    private final int node;
+    private final Settings settings;
+    private final AndroidFastPath fastPath;
+
+    /**
+     * Init element.
+     *
+     * @param tree     UI tree of snapshot.
+     * @param node     Node of element.
+     * @param client   Appium client.
+     * @param settings Settings.
+     */
+    public SnapshotElement(UITree tree, int node, Client client, Settings settings) {
+        this(tree, node, client, settings, null);
+    }
+
+    /**
+     * Init element found in uiautomator dump.
+     *
+     * @param tree     UI tree of dump.
+     * @param node     Node of element.
+     * @param client   Appium client.
+     * @param settings Settings.
+     * @param fastPath Android fast path (null to use Appium only).
+     */
+    public SnapshotElement(UITree tree, int node, Client client, Settings settings, AndroidFastPath fastPath) {
+        super(tree.getBounds(node), client);
+        this.tree = tree;
+        this.node = node;
+        this.settings = settings;
+        this.fastPath = fastPath;
+    }
+
+    /**
+     * Get attribute.
+     *
+     * @param name Name of attribute.
+     * @return Value of attribute (null if element has no such attribute).
+     */
+    public String getAttribute(String name) {
+        return this.tree.getAttribute(this.node, name);
+    }
+
+    /**
+     * Get text (Android: text, iOS: value or label).
+     *
+     * @return Text (empty if element has no text).
+     */
+    public String getText() {
+        String text;
+        if (this.settings.platform == PlatformType.Andorid) {
+            text = this.getAttribute("text");
+        } else {
+            text = this.getAttribute("value");
+            if (text == null || text.isEmpty()) {
+                text = this.getAttribute("label");
+            }
+        }
+        return text != null ? text : "";
+    }
+
+    /**
+     * Get tag name (class of element).
+     *
+     * @return Tag name.
+     */
+    public String getTagName() {
+        return this.tree.getTag(this.node);
+    }
+
+    /**
+     * Get absolute XPath of element.
+     *
+     * @return XPath.
+     */
+    public String getXpath() {
+        return this.tree.getXpath(this.node);
+    }
+
+    /**
+     * Check if element is visible (see UITree.isVisible()).
+     *
+     * @return True if element is visible.
+     */
+    public boolean isVisible() {
+        return this.tree.isVisible(this.node);
+    }
+
+    /**
+     * Check if element is visible in window by the same rule as UIElement.isVisible().
+     *
+     * @param window Size of window.
+     * @return True if element is displayed and visible in window (see UIElement.isVisible(Rectangle, Dimension)).
+     */
+    public boolean isVisible(Dimension window) {
+        return this.tree.isDisplayed(this.node) && UIElement.isVisible(this.rectangle, window);
+    }
+
+    /**
+     * Get center of element.
+     *
+     * @return Center point.
+     */
+    public Point getCenter() {
+        return new Point((int) this.rectangle.getCenterX(), (int) this.rectangle.getCenterY());
+    }
+
+    /**
+     * Get description of element (used in logs).
+     *
+     * @return Text of element or tag name and coordinates.
+     */
+    public String getDescription() {
+        String text = this.getText();
+        if (!text.isEmpty()) {
+            return text;
+        }
+        return this.getTagName() + " at " + this.getCenter().x + ":" + this.getCenter().y;
+    }
+
+    /**
+     * Tap on center of element.
+     */
+    @Override
+    public void tap() {
+        Point center = this.getCenter();
+        if (this.fastPath != null && this.fastPath.tap(center.x, center.y)) {
+            LOGGER_BASE.info("Tap on \"" + this.getDescription() + "\" (adb)");
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        new TouchAction(this.client.getDriver()).tap(center.x, center.y).perform();
+        if (this.fastPath != null) {
+            this.fastPath.record("appium tap", System.currentTimeMillis() - startTime);
+        }
+        LOGGER_BASE.info("Tap on \"" + this.getDescription() + "\"");
+    }
+
+    /**
+     * Tap on element and type text (adb input for elements of uiautomator dump, otherwise UIElement.sendKeys()).
+     *
+     * @param value Text.
+     */
+    public void sendKeys(String value) {
+        Point center = this.getCenter();
+        if (this.fastPath != null && this.fastPath.tap(center.x, center.y) && this.fastPath.inputText(value)) {
+            LOGGER_BASE.info("Set value of \"" + this.getDescription() + "\" to: " + value + " (adb)");
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        this.toUIElement().sendKeys(value);
+        if (this.fastPath != null) {
+            this.fastPath.record("appium text", System.currentTimeMillis() - startTime);
+        }
+    }
+
+    /**
+     * Long press on center of element.
+     */
+    @Override
+    public void longPress() {
+        Point center = this.getCenter();
+        new TouchAction(this.client.getDriver()).longPress(center.x, center.y, 2000).perform();
+        LOGGER_BASE.info("LongPress on \"" + this.getDescription() + "\"");
+    }
+
+    /**
+     * Find the same element on server (by absolute XPath).
+     *
+     * @return Element.
+     * @throws NoSuchElementException When element is not on the page anymore.
+     */
+    public UIElement toUIElement() {
+        String xpath = this.getXpath();
+        MobileElement element = new WaitEngine(this.client, this.settings).findElement(By.xpath(xpath), this.settings.shortTimeout);
+        if (element == null) {
+            throw new NoSuchElementException("Failed to find element " + this.getDescription() + " by xpath: " + xpath);
+        }
+        return new UIElement(element);
+    }
+}
@@ -6,6 +6,7 @@ import functional.tests.core.basetest.TestContextSetupManager;
 import functional.tests.core.enums.PlatformType;
 import functional.tests.core.enums.Position;
 import functional.tests.core.find.Wait;
+import functional.tests.core.find.WaitEngine;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import io.appium.java_client.MobileElement;
@@ -17,7 +18,10 @@ import org.apache.commons.lang.reflect.FieldUtils;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Dimension;
 import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.Point;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.remote.RemoteWebDriver;
 import org.openqa.selenium.remote.RemoteWebElement;
 
@@ -25,6 +29,7 @@ import java.awt.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 /**
  * This object wrappes the Appium MobileElement.
@@ -38,11 +43,38 @@ public class UIElement {
     private Context context;
     private Settings settings;
     private Rectangle elementRectangle;
+    private Rectangle geometry;
+    private int pageVersion;
+    private String foundBy;
+    private String xpath;
     private int offsetX;
     private int offsetY;
 
     public UIElement(MobileElement element) {
+        this(element, null);
+    }
+
+    /**
+     * Init element.
+     *
+     * @param element Appium element.
+     * @param foundBy Description of lookup the element is found by (used in logs instead of getDescription()).
+     */
+    public UIElement(MobileElement element, String foundBy) {
+        this(element, foundBy, null);
+    }
+
+    /**
+     * Init element.
+     *
+     * @param element Appium element.
+     * @param foundBy Description of lookup the element is found by (used in logs instead of getDescription()).
+     * @param xpath   XPath equivalent of the lookup (used by getXpath() when element is found by other strategy).
+     */
+    public UIElement(MobileElement element, String foundBy, String xpath) {
         this.element = element;
+        this.foundBy = foundBy;
+        this.xpath = xpath;
         this.context = TestContextSetupManager.getTestSetupManager().context;
         this.settings = this.context.settings;
         this.client = this.context.client;
@@ -71,8 +103,9 @@ public class UIElement {
         if (this.settings.platform == PlatformType.Andorid) {
             // Tap at the and of the text box (this is very important)
             int currentLegth = this.element.getText().length();
-            int x = this.element.getLocation().getX() + this.element.getSize().width - 5;
-            int y = this.element.getLocation().getY() + (this.element.getSize().height / 3);
+            Rectangle rect = this.getGeometry();
+            int x = rect.x + rect.width - 5;
+            int y = rect.y + (rect.height / 3);
             this.client.driver.tap(1, x, y, Settings.DEFAULT_TAP_DURATION);
             Wait.sleep(Settings.DEFAULT_TAP_DURATION);
 
@@ -100,6 +133,7 @@ public class UIElement {
             this.sendKeys(value);
             Wait.sleep(Settings.DEFAULT_TAP_DURATION);
         }
+        this.invalidateGeometry();
         LOGGER_BASE.info("Set value of text field: " + value);
     }
 
@@ -113,7 +147,8 @@ public class UIElement {
     }
 
     public String getCoordinates() {
-        return String.valueOf(this.element.getCenter().x) + ":" + String.valueOf(this.element.getCenter().y);
+        Point center = this.getCenter();
+        return String.valueOf(center.x) + ":" + String.valueOf(center.y);
     }
 
     public String getDescription() {
@@ -138,32 +173,61 @@ public class UIElement {
         return elementText;
     }
 
+    /**
+     * Describe element without server calls (used in logs).
+     * Element is described by lookup it is found by, or by its id if lookup is unknown.
+     * Use getDescription() to describe element by its text.
+     *
+     * @return Description.
+     */
+    @Override
+    public String toString() {
+        if (this.foundBy != null) {
+            return "element by " + this.foundBy;
+        }
+        return "element " + this.element.getId();
+    }
+
+    /**
+     * Get XPath the element is found by (or XPath equivalent of the lookup, for example for UiSelector and predicate lookups).
+     *
+     * @return XPath (null if element is not found by XPath and lookup has no XPath equivalent).
+     */
     public String getXpath() {
+        if (this.xpath != null) {
+            return this.xpath;
+        }
 
         String foundBy = "";
 
         try {
             foundBy = FieldUtils.readField(this.element, "foundBy", true).toString();
         } catch (IllegalAccessException e) {
-            LOGGER_BASE.error("Failed to get find filed 'foundBy' of element: " + this.getDescription());
+            LOGGER_BASE.error("Failed to get find filed 'foundBy' of element: " + this);
         }
 
         String[] split = foundBy.split("xpath: ");
+        if (split.length < 2) {
+            return null;
+        }
         String xpathString = split[1];
 
         return xpathString;
     }
 
     public Dimension getSize() {
-        return this.element.getSize();
+        Rectangle rect = this.getGeometry();
+        return new Dimension(rect.width, rect.height);
     }
 
     public Point getCenter() {
-        return this.element.getCenter();
+        Rectangle rect = this.getGeometry();
+        return new Point(rect.x + rect.width / 2, rect.y + rect.height / 2);
     }
 
     public Point getLocation() {
-        return this.element.getLocation();
+        Rectangle rect = this.getGeometry();
+        return new Point(rect.x, rect.y);
     }
 
     public boolean isSelected() {
@@ -178,24 +242,43 @@ public class UIElement {
         return this.element.isDisplayed();
     }
 
+    /**
+     * Check if element is displayed in the window.
+     * Displayed state and bounds are always fetched from server (page may change without any command).
+     *
+     * @return True if element is visible.
+     */
     public boolean isVisible() {
         if (this.isDisplayed()) {
-            Dimension windowRect = this.context.device.getWindowSize();
-            Rectangle elementRect = this.getUIRectangle();
-            if (elementRect.getHeight() / 2 + elementRect.getY() > windowRect.getHeight()) {
-                return false;
-            } else if (elementRect.x < 0 || elementRect.y < 0 || elementRect.width <= 0 || elementRect.height <= 0) {
-                return false;
-            } else {
-                return true;
-            }
+            this.geometry = null;
+            return UIElement.isVisible(this.getGeometry(), this.context.device.getWindowSize());
         } else {
             return false;
         }
     }
 
+    /**
+     * Check if displayed element with bounds is visible in the window: it has size, it is not above or left
+     * of the window and its center is not below the window.
+     * The same rule is used for elements of page snapshot (see SnapshotElement.isVisible(Dimension)).
+     *
+     * @param bounds Bounds of element.
+     * @param window Size of window.
+     * @return True if element is visible.
+     */
+    public static boolean isVisible(Rectangle bounds, Dimension window) {
+        if (bounds.getHeight() / 2 + bounds.getY() > window.getHeight()) {
+            return false;
+        }
+        return bounds.x >= 0 && bounds.y >= 0 && bounds.width > 0 && bounds.height > 0;
+    }
+
     public UIElement findElement(By by) {
-        return new UIElement(this.element.findElement(by));
+        MobileElement child = new WaitEngine(this.client, this.settings).findElement(this.element, by, this.settings.defaultTimeout);
+        if (child == null) {
+            throw new NoSuchElementException("Failed to find element by locator: " + by + " in " + this);
+        }
+        return new UIElement(child, by + " in " + this);
     }
 
     public UIElement findElementById(String id) {
@@ -203,39 +286,58 @@ public class UIElement {
     }
 
     public ArrayList<UIElement> findElements(By by) {
-        List<MobileElement> elements = this.element.findElements(by);
+        final By locator = by;
+        final WaitEngine waitEngine = new WaitEngine(this.client, this.settings);
+        List<MobileElement> elements = waitEngine.until(new Callable<List<MobileElement>>() {
+            @Override
+            public List<MobileElement> call() {
+                return waitEngine.findNow(UIElement.this.element, locator);
+            }
+        }, this.settings.defaultTimeout, "Find elements " + locator + " in " + this);
+        if (elements == null) {
+            elements = new ArrayList<>();
+        }
         ArrayList<UIElement> uiElements = new ArrayList<>();
 
         for (MobileElement elment : elements) {
-            uiElements.add(new UIElement(this.element));
+            uiElements.add(new UIElement(elment, by + " in " + this));
         }
 
         return uiElements;
     }
 
     public void sendKeys(String value) {
-        this.element.sendKeys(value);
+        try {
+            this.element.sendKeys(value);
+        } finally {
+            this.invalidateGeometry();
+        }
     }
 
     public void click() {
-        String text = this.getDescription();
-        this.click(text);
+        this.click(this.toString());
     }
 
     public void click(String description) {
-        this.element.click();
+        try {
+            this.element.click();
+        } finally {
+            this.invalidateGeometry();
+        }
         LOGGER_BASE.info("Click on " + description);
     }
 
     public void tap(int fingers, int duration, int waitAfterTap) {
-        String text = this.getDescription();
-
-        this.element.tap(fingers, duration);
+        try {
+            this.element.tap(fingers, duration);
+        } finally {
+            this.invalidateGeometry();
+        }
         if (waitAfterTap > 0) {
             Wait.sleep(waitAfterTap);
         }
 
-        LOGGER_BASE.info("Tap on \"" + text + "\"");
+        LOGGER_BASE.info("Tap on \"" + this + "\"");
     }
 
     public void tap() {
@@ -254,10 +356,9 @@ public class UIElement {
         LOGGER_BASE.info("Double Tap: "); // + Elements.getElementDetails(element));
         if (this.settings.platform == PlatformType.Andorid) {
 
-            Double x = (double) this.element.getLocation().x
-                    + (double) (this.element.getSize().width / 2);
-            Double y = (double) this.element.getLocation().y
-                    + (double) (this.element.getSize().height / 2);
+            Point center = this.getCenter();
+            Double x = (double) center.x;
+            Double y = (double) center.y;
             JavascriptExecutor js = (JavascriptExecutor) this.client.driver;
             HashMap<String, Double> tapObject = new HashMap<String, Double>();
             tapObject.put("x", x);
@@ -272,6 +373,7 @@ public class UIElement {
             RemoteWebElement e = (RemoteWebElement) this.element;
             ((RemoteWebDriver) this.client.driver).executeScript("au.getElement('" + e.getId() + "').tapWithOptions({tapCount:2});");
         }
+        this.invalidateGeometry();
     }
 
     public void longPress(int duration) {
@@ -282,6 +384,7 @@ public class UIElement {
         } else {
             action.press(this.element).waitAction(duration).release().perform();
         }
+        this.invalidateGeometry();
     }
 
     public void pressAndHold() {
@@ -298,8 +401,8 @@ public class UIElement {
             TouchAction action1 = new TouchAction(this.client.driver);
             TouchAction action2 = new TouchAction(this.client.driver);
 
-            int elementWidth = this.element.getSize().width;
-            int elementHeight = this.element.getSize().height;
+            int elementWidth = this.getGeometry().width;
+            int elementHeight = this.getGeometry().height;
 
             action1.press(this.element, 10, 10).moveTo(this.element, 50, 50);
 
@@ -315,8 +418,8 @@ public class UIElement {
             TouchAction action1 = new TouchAction(this.client.driver);
             TouchAction action2 = new TouchAction(this.client.driver);
 
-            int elementWidth = this.element.getSize().width;
-            int elementHeight = this.element.getSize().height;
+            int elementWidth = this.getGeometry().width;
+            int elementHeight = this.getGeometry().height;
 
             action1.press(this.element, 10, 10).moveTo(this.element, 50, 50).release();
 
@@ -329,6 +432,7 @@ public class UIElement {
             multiAction.add(action2);
             multiAction.perform();
         }
+        this.invalidateGeometry();
     }
 
     public void rotate() {
@@ -338,8 +442,8 @@ public class UIElement {
             TouchAction action1 = new TouchAction(this.client.driver);
             TouchAction action2 = new TouchAction(this.client.driver);
 
-            int elementWidth = this.element.getSize().width;
-            int elementHeight = this.element.getSize().height;
+            int elementWidth = this.getGeometry().width;
+            int elementHeight = this.getGeometry().height;
 
             action1.press(this.element, 10, 10).moveTo(this.element, 10, 50);
 
@@ -355,8 +459,8 @@ public class UIElement {
             TouchAction action1 = new TouchAction(this.client.driver);
             TouchAction action2 = new TouchAction(this.client.driver);
 
-            int elementWidth = this.element.getSize().width;
-            int elementHeight = this.element.getSize().height;
+            int elementWidth = this.getGeometry().width;
+            int elementHeight = this.getGeometry().height;
 
             action1.press(this.element, 10, 10).moveTo(this.element, 10, 50).release();
 
@@ -369,6 +473,7 @@ public class UIElement {
             multiAction.add(action2);
             multiAction.perform();
         }
+        this.invalidateGeometry();
     }
 
     public void pan(SwipeElementDirection direction, int duration) {
@@ -385,8 +490,9 @@ public class UIElement {
      * @param duration
      */
     public void dragAndDrop(int xOffset, int yOffset, int duration) {
-        Point point = this.element.getLocation();
+        Point point = this.getLocation();
         this.client.driver.swipe(point.getX(), point.getY(), point.getX() + xOffset, point.getY() + yOffset, duration);
+        this.invalidateGeometry();
     }
 
     /**
@@ -503,12 +609,62 @@ public class UIElement {
     }
 
     public java.awt.Rectangle getUIRectangle() {
-        java.awt.Rectangle rect = new java.awt.Rectangle(
-                this.element.getLocation().getX(),
-                this.element.getLocation().getY(),
-                this.element.getSize().getWidth(),
-                this.element.getSize().getHeight());
+        return new Rectangle(this.getGeometry());
+    }
+
+    /**
+     * Drop cached bounds of element (next gesture fetches them from server).
+     * Cache is dropped automatically after actions on this element, when page may be changed
+     * (any command that changes the page, adb input and page transitions, see PageSnapshot.getVersion())
+     * and by isVisible() (it always fetches fresh bounds).
+     */
+    public void invalidateGeometry() {
+        this.geometry = null;
+    }
+
+    /**
+     * Drop cached bounds if page may be changed since they are fetched.
+     */
+    private void dropStaleGeometry() {
+        int version = this.client.snapshot.getVersion();
+        if (version != this.pageVersion) {
+            this.invalidateGeometry();
+            this.pageVersion = version;
+        }
+    }
 
-        return rect;
+    /**
+     * Get bounds of element (fetched in one call and cached until invalidateGeometry(), so gestures that need
+     * several values of bounds do not fetch them several times).
+     * If session does not support element rect, location and size are fetched instead.
+     *
+     * @return Bounds of element (do not modify).
+     */
+    private Rectangle getGeometry() {
+        this.dropStaleGeometry();
+        if (this.geometry == null) {
+            if (this.client.isRectSupported()) {
+                try {
+                    org.openqa.selenium.Rectangle rect = this.element.getRect();
+                    this.geometry = new Rectangle(rect.x, rect.y, rect.width, rect.height);
+                    return this.geometry;
+                } catch (UnsupportedCommandException e) {
+                    LOGGER_BASE.debug("Element rect is not supported, get location and size instead: " + e.getMessage());
+                    this.client.setRectUnsupported();
+                } catch (WebDriverException e) {
+                    String message = String.valueOf(e.getMessage()).toLowerCase();
+                    if (!message.contains("not implemented") && !message.contains("not yet implemented") && !message.contains("unknown command")) {
+                        throw e;
+                    }
+                    LOGGER_BASE.debug("Element rect is not implemented, get location and size instead: " + e.getMessage());
+                    this.client.setRectUnsupported();
+                }
+            }
+
+            Point location = this.element.getLocation();
+            Dimension size = this.element.getSize();
+            this.geometry = new Rectangle(location.x, location.y, size.width, size.height);
+        }
+        return this.geometry;
     }
 }
@@ -21,8 +21,12 @@ public class UIRectangle {
     }
 
     public UIRectangle(Rectangle rectangle, Context context) {
+        this(rectangle, context.client);
+    }
+
+    public UIRectangle(Rectangle rectangle, Client client) {
         this.rectangle = rectangle;
-        this.client = context.client;
+        this.client = client;
     }
 
     public Rectangle getRectangle() {
@@ -0,0 +1,244 @@
+package functional.tests.core.extensions;
+
+import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.log.LoggerBase;
+import org.testng.IMethodInstance;
+import org.testng.IMethodInterceptor;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedule test classes on multiple devices based on durations from previous runs.
+ * Classes are ordered longest first (LPT), and each device takes next class from the shared queue
+ * as soon as it completes previous one, so device that drains early steals remaining work.
+ * Order of methods inside class is not changed (so it can be combined with ExecutionOrder).
+ * Durations of tests and classes are recorded in TestDurationHistory after each run,
+ * predicted and actual makespan are logged at the end.
+ * Usage: add as listener in testng.xml and run suite with parallel="classes" (see DevicePool).
+ */
+public class DurationScheduler implements IMethodInterceptor, ITestListener {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("DurationScheduler");
+    private static final long DEFAULT_TEST_DURATION = 30000;
+
+    private final TestDurationHistory history;
+    private final Map<ITestContext, Map<String, long[]>> classTimes;
+    private final Map<ITestContext, Map<String, String>> classWorkers;
+    private long predictedMakespan = -1;
+    private long startTime;
+
+    /**
+     * Init scheduler with default history file.
+     */
+    public DurationScheduler() {
+        this(new TestDurationHistory());
+    }
+
+    /**
+     * Init scheduler.
+     *
+     * @param history History of test durations.
+     */
+    public DurationScheduler(TestDurationHistory history) {
+        this.history = history;
+        this.classTimes = new LinkedHashMap<>();
+        this.classWorkers = new LinkedHashMap<>();
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> list, ITestContext iTestContext) {
+        // Group methods by class (keep order of methods inside class).
+        final Map<String, List<IMethodInstance>> classes = new LinkedHashMap<>();
+        for (IMethodInstance method : list) {
+            String className = method.getMethod().getRealClass().getName();
+            if (!classes.containsKey(className)) {
+                classes.put(className, new ArrayList<IMethodInstance>());
+            }
+            classes.get(className).add(method);
+        }
+
+        final Map<String, Long> predicted = new LinkedHashMap<>();
+        for (Map.Entry<String, List<IMethodInstance>> entry : classes.entrySet()) {
+            predicted.put(entry.getKey(), this.predictClassDuration(entry.getKey(), entry.getValue()));
+        }
+
+        // Longest processing time first.
+        List<String> order = new ArrayList<>(classes.keySet());
+        Collections.sort(order, new Comparator<String>() {
+            @Override
+            public int compare(String c1, String c2) {
+                return Long.compare(predicted.get(c2), predicted.get(c1));
+            }
+        });
+
+        this.predictedMakespan = this.simulate(order, predicted, TestContextSetupManager.getAppConfigs().size());
+
+        List<IMethodInstance> result = new ArrayList<>();
+        for (String className : order) {
+            result.addAll(classes.get(className));
+        }
+        return result;
+    }
+
+    @Override
+    public void onStart(ITestContext iTestContext) {
+        this.startTime = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onTestStart(ITestResult iTestResult) {
+        String className = iTestResult.getTestClass().getRealClass().getName();
+        synchronized (this) {
+            Map<String, String> workers = DurationScheduler.getOrCreate(this.classWorkers, iTestResult.getTestContext());
+            if (!workers.containsKey(className)) {
+                workers.put(className, Thread.currentThread().getName());
+            }
+        }
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult iTestResult) {
+        this.recordTest(iTestResult);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult iTestResult) {
+        this.recordTest(iTestResult);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult iTestResult) {
+    }
+
+    @Override
+    public void onTestFailedButWithinSuccessPercentage(ITestResult iTestResult) {
+        this.recordTest(iTestResult);
+    }
+
+    @Override
+    public synchronized void onFinish(ITestContext iTestContext) {
+        long actualMakespan = System.currentTimeMillis() - this.startTime;
+
+        // Record only classes of finished context (classes of other <test> contexts are recorded on their finish).
+        Map<String, long[]> times = this.classTimes.remove(iTestContext);
+        Map<String, String> workers = this.classWorkers.remove(iTestContext);
+        if (times == null) {
+            times = new LinkedHashMap<>();
+        }
+        if (workers == null) {
+            workers = new LinkedHashMap<>();
+        }
+
+        Map<String, Long> workerTimes = new LinkedHashMap<>();
+        for (Map.Entry<String, long[]> entry : times.entrySet()) {
+            long duration = entry.getValue()[1] - entry.getValue()[0];
+            this.history.recordClass(entry.getKey(), duration);
+
+            String worker = workers.get(entry.getKey());
+            Long workerTime = workerTimes.get(worker);
+            workerTimes.put(worker, (workerTime == null ? 0 : workerTime) + duration);
+        }
+        this.history.save();
+
+        for (Map.Entry<String, Long> entry : workerTimes.entrySet()) {
+            LOGGER_BASE.info("Worker " + entry.getKey() + " busy for " + entry.getValue() + " ms.");
+        }
+        LOGGER_BASE.info("Predicted makespan: " + (this.predictedMakespan > -1 ? this.predictedMakespan + " ms." : "not available."));
+        LOGGER_BASE.info("Actual makespan: " + actualMakespan + " ms.");
+    }
+
+    /**
+     * Record test duration and update first start and last end of its class.
+     *
+     * @param result Test result.
+     */
+    private synchronized void recordTest(ITestResult result) {
+        String className = result.getTestClass().getRealClass().getName();
+        this.history.recordTest(className, result.getMethod().getMethodName(), result.getEndMillis() - result.getStartMillis());
+
+        Map<String, long[]> contextTimes = DurationScheduler.getOrCreate(this.classTimes, result.getTestContext());
+        long[] times = contextTimes.get(className);
+        if (times == null) {
+            contextTimes.put(className, new long[]{result.getStartMillis(), result.getEndMillis()});
+        } else {
+            times[0] = Math.min(times[0], result.getStartMillis());
+            times[1] = Math.max(times[1], result.getEndMillis());
+        }
+    }
+
+    /**
+     * Get values of test context (create empty map on first use).
+     *
+     * @param map     Map of values per test context.
+     * @param context Test context.
+     * @param <V>     Type of values.
+     * @return Values of test context.
+     */
+    private static <V> Map<String, V> getOrCreate(Map<ITestContext, Map<String, V>> map, ITestContext context) {
+        Map<String, V> values = map.get(context);
+        if (values == null) {
+            values = new LinkedHashMap<>();
+            map.put(context, values);
+        }
+        return values;
+    }
+
+    /**
+     * Predict duration of class.
+     * Use class duration from history, or sum of known method durations (unknown methods get default duration).
+     *
+     * @param className Full name of test class.
+     * @param methods   Test methods of the class.
+     * @return Predicted duration in milliseconds.
+     */
+    private long predictClassDuration(String className, List<IMethodInstance> methods) {
+        long duration = this.history.getClassDuration(className);
+        if (duration > -1) {
+            return duration;
+        }
+
+        duration = 0;
+        for (IMethodInstance method : methods) {
+            long testDuration = this.history.getTestDuration(className, method.getMethod().getMethodName());
+            duration += testDuration > -1 ? testDuration : DEFAULT_TEST_DURATION;
+        }
+        return duration;
+    }
+
+    /**
+     * Simulate schedule (each class goes to the least loaded worker) and log it.
+     *
+     * @param order     Classes in order of execution.
+     * @param predicted Predicted duration of classes.
+     * @param workers   Number of workers (devices).
+     * @return Predicted makespan in milliseconds.
+     */
+    private long simulate(List<String> order, Map<String, Long> predicted, int workers) {
+        long[] loads = new long[Math.max(1, workers)];
+        for (String className : order) {
+            int worker = 0;
+            for (int i = 1; i < loads.length; i++) {
+                if (loads[i] < loads[worker]) {
+                    worker = i;
+                }
+            }
+            loads[worker] += predicted.get(className);
+            LOGGER_BASE.debug("Schedule " + className + " (" + predicted.get(className) + " ms) on worker " + worker + ".");
+        }
+
+        long makespan = 0;
+        for (long load : loads) {
+            makespan = Math.max(makespan, load);
+        }
+        LOGGER_BASE.info("Scheduled " + order.size() + " classes on " + loads.length + " workers. Predicted makespan: " + makespan + " ms.");
+        return makespan;
+    }
+}
@@ -0,0 +1,148 @@
+package functional.tests.core.extensions;
+
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.FileSystem;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+
+/**
+ * History of test durations.
+ * Durations of test methods and test classes (in milliseconds) are stored in local properties file.
+ * Stored value is moving average of previous runs, so single slow run does not break the schedule.
+ */
+public class TestDurationHistory {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("TestDurationHistory");
+    private static final String DEFAULT_PATH = Settings.FRAMEWORK_HOME_DIR + File.separator + "test-durations.properties";
+    private static final double SMOOTHING = 0.5;
+
+    private final String filePath;
+    private final Properties durations;
+
+    /**
+     * Init history stored in default location (~/.functional-tests/test-durations.properties).
+     */
+    public TestDurationHistory() {
+        this(DEFAULT_PATH);
+    }
+
+    /**
+     * Init history stored in file.
+     *
+     * @param filePath Path to history file.
+     */
+    public TestDurationHistory(String filePath) {
+        this.filePath = filePath;
+        this.durations = new Properties();
+        this.load();
+    }
+
+    /**
+     * Get duration of test class from previous runs.
+     *
+     * @param className Full name of test class.
+     * @return Duration in milliseconds (-1 if class is not executed before).
+     */
+    public synchronized long getClassDuration(String className) {
+        return this.get("class." + className);
+    }
+
+    /**
+     * Get duration of test method from previous runs.
+     *
+     * @param className  Full name of test class.
+     * @param methodName Name of test method.
+     * @return Duration in milliseconds (-1 if method is not executed before).
+     */
+    public synchronized long getTestDuration(String className, String methodName) {
+        return this.get("test." + className + "#" + methodName);
+    }
+
+    /**
+     * Record duration of test class.
+     *
+     * @param className Full name of test class.
+     * @param duration  Duration in milliseconds.
+     */
+    public synchronized void recordClass(String className, long duration) {
+        this.record("class." + className, duration);
+    }
+
+    /**
+     * Record duration of test method.
+     *
+     * @param className  Full name of test class.
+     * @param methodName Name of test method.
+     * @param duration   Duration in milliseconds.
+     */
+    public synchronized void recordTest(String className, String methodName, long duration) {
+        this.record("test." + className + "#" + methodName, duration);
+    }
+
+    /**
+     * Save history to file.
+     */
+    public synchronized void save() {
+        File file = new File(this.filePath);
+        FileSystem.ensureFolderExists(file.getParent());
+        try (OutputStream output = new FileOutputStream(file)) {
+            this.durations.store(output, "Test durations in milliseconds");
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to save test durations: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Load history from file (if file exists).
+     */
+    private void load() {
+        File file = new File(this.filePath);
+        if (!file.exists()) {
+            LOGGER_BASE.debug("No test durations history at " + this.filePath);
+            return;
+        }
+
+        try (InputStream input = new FileInputStream(file)) {
+            this.durations.load(input);
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to load test durations: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Get stored duration.
+     *
+     * @param key Key.
+     * @return Duration in milliseconds (-1 if not available).
+     */
+    private long get(String key) {
+        String value = this.durations.getProperty(key);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Store duration as moving average with previous value.
+     *
+     * @param key      Key.
+     * @param duration Duration in milliseconds.
+     */
+    private void record(String key, long duration) {
+        long previous = this.get(key);
+        long value = previous < 0 ? duration : Math.round(SMOOTHING * duration + (1 - SMOOTHING) * previous);
+        this.durations.setProperty(key, String.valueOf(value));
+    }
+}
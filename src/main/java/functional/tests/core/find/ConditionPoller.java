@@ -0,0 +1,119 @@
+package functional.tests.core.find;
+
+import functional.tests.core.appium.DriverHealthMonitor;
+import functional.tests.core.log.LoggerBase;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+/**
+ * Poll condition until it is satisfied or deadline is reached.
+ * Condition is evaluated at least once, then on each interval (interval grows by backoff up to max interval).
+ * Last sleep is shortened, so polling ends on the deadline.
+ * Polling stops immediately when session is dead (see DriverHealthMonitor).
+ */
+public class ConditionPoller {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("ConditionPoller");
+
+    private final int interval;
+    private final double backoff;
+    private final int maxInterval;
+    private final DriverHealthMonitor health;
+
+    /**
+     * Init poller.
+     *
+     * @param interval    Initial poll interval in milliseconds.
+     * @param backoff     Interval is multiplied by this value after each poll (1 for fixed interval).
+     * @param maxInterval Max poll interval in milliseconds.
+     * @param health      Health monitor of session (null if condition does not depend on session).
+     */
+    public ConditionPoller(int interval, double backoff, int maxInterval, DriverHealthMonitor health) {
+        this.interval = Math.max(1, interval);
+        this.backoff = Math.max(1, backoff);
+        this.maxInterval = Math.max(this.interval, maxInterval);
+        this.health = health;
+    }
+
+    /**
+     * Poll condition until it is satisfied or timeout.
+     *
+     * @param condition Condition.
+     * @param timeOut   Timeout in milliseconds.
+     * @param <T>       Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     */
+    public <T> T poll(Callable<T> condition, long timeOut) {
+        return this.pollUntil(condition, System.currentTimeMillis() + timeOut);
+    }
+
+    /**
+     * Poll condition until it is satisfied or deadline is reached.
+     * Condition is satisfied when it returns value that is not null, false or empty collection.
+     * NoSuchElementException and StaleElementReferenceException are treated as not satisfied condition,
+     * other WebDriverExceptions are retried unless session is dead.
+     *
+     * @param condition Condition.
+     * @param deadline  Deadline (time in milliseconds, see System.currentTimeMillis()).
+     * @param <T>       Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     * @throws WebDriverException When session is dead.
+     */
+    public <T> T pollUntil(Callable<T> condition, long deadline) {
+        long currentInterval = this.interval;
+        while (true) {
+            this.checkHealth();
+
+            T result = null;
+            try {
+                result = condition.call();
+            } catch (NoSuchElementException | StaleElementReferenceException e) {
+                result = null;
+            } catch (WebDriverException e) {
+                this.checkHealth();
+                LOGGER_BASE.debug("Condition failed: " + e.getMessage());
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new WebDriverException(e);
+            }
+
+            if (ConditionPoller.isSatisfied(result)) {
+                return result;
+            }
+
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return null;
+            }
+            Wait.sleep((int) Math.min(currentInterval, remaining));
+            currentInterval = Math.min(this.maxInterval, (long) (currentInterval * this.backoff));
+        }
+    }
+
+    /**
+     * Fail if session is dead.
+     */
+    private void checkHealth() {
+        if (this.health != null) {
+            this.health.check();
+        }
+    }
+
+    /**
+     * Check if result of condition means condition is satisfied.
+     *
+     * @param result Result of condition.
+     * @return True if result is not null, false or empty collection.
+     */
+    private static boolean isSatisfied(Object result) {
+        if (result == null || Boolean.FALSE.equals(result)) {
+            return false;
+        }
+        return !(result instanceof Collection) || !((Collection<?>) result).isEmpty();
+    }
+}
@@ -1,16 +1,22 @@
 package functional.tests.core.find;
 
-import functional.tests.core.appium.Client;
 import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.device.android.AndroidFastPath;
+import functional.tests.core.element.SnapshotElement;
 import functional.tests.core.element.UIElement;
+import functional.tests.core.enums.PlatformType;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 import io.appium.java_client.MobileElement;
 import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.NoSuchElementException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TODO(): Add docs.
@@ -18,7 +24,9 @@ import java.util.List;
 public class Find {
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("Find");
 
-    private Client client;
+    private Context context;
+    private WaitEngine waitEngine;
+    private PageSnapshot snapshot;
     private functional.tests.core.find.Locators locators;
     private Settings settings;
 
@@ -27,43 +35,35 @@ public class Find {
     }
 
     public Find(Context context) {
-        this.client = context.client;
+        this.context = context;
+        this.waitEngine = new WaitEngine(context.client, context.settings);
+        this.snapshot = context.client.snapshot;
         this.locators = context.locators;
         this.settings = context.settings;
     }
 
     public UIElement byLocator(By locator) {
-        return new UIElement((MobileElement) this.client.getDriver().findElement(locator));
+        MobileElement element = this.waitEngine.findElement(locator, this.settings.defaultTimeout);
+        if (element == null) {
+            throw new NoSuchElementException("Failed to find element by locator: " + locator + " in "
+                    + String.valueOf(this.settings.defaultTimeout) + " seconds.");
+        }
+        return new UIElement(element, locator.toString());
     }
 
     public UIElement byLocator(By locator, int timeOut) {
-        this.client.setWait(timeOut);
-        UIElement result;
-        try {
-            result = this.byLocator(locator);
-        } catch (Exception e) {
-            LOGGER_BASE.debug("Failed to find element by locator: " + locator + " in " + String.valueOf(timeOut) + " seconds.");
-            result = null;
-        }
-
-        this.client.setWait(this.settings.defaultTimeout);
-        return result;
+        return this.byLocator(locator, timeOut, locator.toString());
     }
 
     public UIElement byType(String value) {
-        return new UIElement((MobileElement) this.client.getDriver().findElement(By.className(value)));
+        return this.byLocator(By.className(value));
     }
 
     public UIElement byType(String value, int timeOut) {
-        this.client.setWait(timeOut);
-        UIElement result;
-        try {
-            result = this.byType(value);
-        } catch (Exception e) {
+        UIElement result = this.byLocator(By.className(value), timeOut);
+        if (result == null) {
             LOGGER_BASE.error("Failed to find element by value: " + value + " in " + String.valueOf(timeOut) + " seconds.");
-            result = null;
         }
-        this.client.setWait(this.settings.defaultTimeout);
         return result;
     }
 
@@ -72,86 +72,290 @@ public class Find {
     }
 
     public UIElement byText(String value, int timeOut) {
-        this.client.setWait(timeOut);
-        UIElement result;
-        try {
-            result = this.byLocator(this.locators.byText(value));
-        } catch (Exception e) {
+        UIElement result = this.byLocator(this.locators.byText(value), timeOut, "text: " + value);
+        if (result == null) {
             LOGGER_BASE.error("Failed to find element by text: " + value + " in " + String.valueOf(timeOut) + " seconds.");
-            result = null;
         }
-        this.client.setWait(this.settings.defaultTimeout);
         return result;
     }
 
     public UIElement byText(String value, Boolean exactMatch, int timeOut) {
-        this.client.setWait(timeOut);
-        UIElement result;
-        try {
-            result = this.byLocator(this.locators.byText(value, exactMatch, false));
-        } catch (Exception e) {
+        UIElement result = this.byLocator(this.locators.byText(value, exactMatch, false), timeOut, "text: " + value);
+        if (result == null) {
             LOGGER_BASE.error("Failed to find element by text: " + value + " in " + String.valueOf(timeOut) + " seconds.");
-            result = null;
         }
-        this.client.setWait(this.settings.defaultTimeout);
         return result;
     }
 
     public UIElement byTextContains(String value) {
-        return this.byLocator(this.locators.byText(value, false, false), this.settings.shortTimeout);
+        return this.byLocator(this.locators.byText(value, false, false), this.settings.shortTimeout, "text containing: " + value);
     }
 
     public List<UIElement> elementsByLocator(By locator) {
-//        if (this.settings.platform == PlatformType.Andorid && this.settings.platformVersion >= 7.0) {
-//            this.client.setWait(this.settings.shortTimeout / 4);
-//        }
-
-        return this.convertListOfMobileElementToUIElement((List<MobileElement>) this.client.driver.findElements(locator));
+        return this.convertListOfMobileElementToUIElement(this.waitEngine.findElements(locator, this.settings.defaultTimeout), locator);
     }
 
     public List<UIElement> elementsByLocator(By locator, int timeOut) {
-        this.client.setWait(timeOut);
-        List<UIElement> result;
-        try {
-            result = this.elementsByLocator(locator);
-        } catch (Exception e) {
-            LOGGER_BASE.error("Failed to find elements by locator: " + locator + " in " + String.valueOf(timeOut) + " seconds.");
-            result = null;
-        }
-        this.client.setWait(this.settings.defaultTimeout);
-        return result;
+        return this.convertListOfMobileElementToUIElement(this.waitEngine.findElements(locator, timeOut), locator);
     }
 
     public List<UIElement> elementsbyType(String value) {
-        return this.convertListOfMobileElementToUIElement((List<MobileElement>) this.client.driver.findElements(By.className(value)));
+        return this.elementsByLocator(By.className(value));
     }
 
     public List<UIElement> elementsbyType(String value, int timeOut) {
-        this.client.setWait(timeOut);
-        List<UIElement> result;
-        try {
-            result = this.elementsbyType(value);
-        } catch (Exception e) {
-            LOGGER_BASE.error("Failed to find elements by type: " + value + " in " + String.valueOf(timeOut) + " seconds.");
-            result = null;
-        }
-        this.client.setWait(this.settings.defaultTimeout);
-        return result;
+        return this.elementsByLocator(By.className(value), timeOut);
     }
 
     public UIElement getParent(UIElement element) {
-        String xpathString = element.getXpath() + "/..";
+        String xpath = element.getXpath();
+        if (xpath == null) {
+            // Element has no XPath (for example it is found by id), so parent is found relative to element.
+            LOGGER_BASE.debug("Looking for parent of " + element + " by relative Xpath.");
+            return element.findElement(By.xpath(".."));
+        }
+        String xpathString = xpath + "/..";
         LOGGER_BASE.debug("Looking for parent with the following Xpath: " + xpathString);
-        UIElement e = new UIElement((MobileElement) this.client.driver.findElement(By.xpath(xpathString)));
-        LOGGER_BASE.debug("Found " + e.getDescription());
+        UIElement e = this.byLocator(By.xpath(xpathString));
+        if (LOGGER_BASE.isDebugEnabled()) {
+            LOGGER_BASE.debug("Found " + e.getDescription());
+        }
         return e;
     }
 
-    private List<UIElement> convertListOfMobileElementToUIElement(List<MobileElement> list) {
+    /**
+     * Find element without blocking (see WaitEngine.untilAsync()).
+     * Cancel the future to stop polling.
+     *
+     * @param locator Locator.
+     * @param timeOut Timeout in seconds.
+     * @return Future element (completes with null if not found in time).
+     */
+    public CompletableFuture<UIElement> findAsync(final By locator, int timeOut) {
+        return this.waitEngine.untilAsync(new Callable<UIElement>() {
+            @Override
+            public UIElement call() {
+                List<MobileElement> elements = Find.this.waitEngine.findNow(null, locator);
+                return elements.isEmpty() ? null : new UIElement(elements.get(0), locator.toString());
+            }
+        }, timeOut, "Find " + locator);
+    }
+
+    /**
+     * Find element by text in page snapshot (see PageSnapshot).
+     * Text is compared locally, so it is much faster than byText() when page has many elements.
+     *
+     * @param value   Text.
+     * @param timeOut Timeout in seconds.
+     * @return Element (null if not found in time).
+     */
+    public SnapshotElement snapshotByText(final String value, int timeOut) {
+        return this.fromSnapshot(new Callable<List<SnapshotElement>>() {
+            @Override
+            public List<SnapshotElement> call() {
+                return Find.this.snapshot.findElementsByText(value, true, false);
+            }
+        }, "text: " + value, timeOut);
+    }
+
+    /**
+     * Find element by locator in page snapshot (see PageSnapshot).
+     *
+     * @param locator Locator (xpath, id or className, use byLocator() for other locators).
+     * @param timeOut Timeout in seconds.
+     * @return Element (null if not found in time).
+     * @throws InvalidSelectorException When locator is not supported by page snapshot.
+     */
+    public SnapshotElement snapshotByLocator(final By locator, int timeOut) {
+        // Fail before polling, otherwise poll would retry invalid locator until timeout.
+        if (!PageSnapshot.isSupported(locator)) {
+            throw new InvalidSelectorException("Page snapshot does not support locator: " + locator + ", use byLocator() instead.");
+        }
+        return this.fromSnapshot(new Callable<List<SnapshotElement>>() {
+            @Override
+            public List<SnapshotElement> call() {
+                return Find.this.snapshot.findElements(locator);
+            }
+        }, locator.toString(), timeOut);
+    }
+
+    /**
+     * Find element by text in uiautomator dump (Android fast path, see AndroidFastPath).
+     * Falls back to snapshotByText() on iOS or when fast path is not available or does not find element.
+     *
+     * @param value   Text.
+     * @param timeOut Timeout in seconds.
+     * @return Element (null if not found in time).
+     */
+    public SnapshotElement fastByText(final String value, int timeOut) {
+        long deadline = System.currentTimeMillis() + timeOut * 1000L;
+        final String[] attributes = PageSnapshot.getTextAttributes(PlatformType.Andorid);
+        List<SnapshotElement> elements = this.fromDump(new TreeLookup() {
+            @Override
+            public int[] find(UITree tree) {
+                return tree.findByText(attributes, value, true, false);
+            }
+        }, "text: " + value, timeOut);
+        if (elements == null) {
+            return this.snapshotByText(value, Find.remainingSeconds(deadline));
+        }
+        // Check once with Appium page source if dump does not find element (for example dump is not complete).
+        return elements.isEmpty() ? this.snapshotByText(value, 0) : elements.get(0);
+    }
+
+    /**
+     * Find element by locator in uiautomator dump (Android fast path, see AndroidFastPath).
+     * Falls back to snapshotByLocator() for xpath locators, on iOS or when fast path is not available or does not find element.
+     * Short ids are expanded like in page snapshot (see PageSnapshot.getResourceIds()).
+     *
+     * @param locator Locator (id or className).
+     * @param timeOut Timeout in seconds.
+     * @return Element (null if not found in time).
+     */
+    public SnapshotElement fastByLocator(final By locator, int timeOut) {
+        long deadline = System.currentTimeMillis() + timeOut * 1000L;
+        final String value = locator.toString().substring(locator.toString().indexOf(':') + 1).trim();
+        List<SnapshotElement> elements = null;
+        if (locator instanceof By.ById) {
+            final String[] resourceIds = PageSnapshot.getResourceIds(value, this.settings.packageId);
+            elements = this.fromDump(new TreeLookup() {
+                @Override
+                public int[] find(UITree tree) {
+                    return tree.findByAttribute("resource-id", resourceIds);
+                }
+            }, locator.toString(), timeOut);
+        } else if (locator instanceof By.ByClassName) {
+            elements = this.fromDump(new TreeLookup() {
+                @Override
+                public int[] find(UITree tree) {
+                    return tree.findByTag(value);
+                }
+            }, locator.toString(), timeOut);
+        }
+        if (elements == null) {
+            return this.snapshotByLocator(locator, Find.remainingSeconds(deadline));
+        }
+        // Check once with Appium page source if dump does not find element (for example dump is not complete).
+        return elements.isEmpty() ? this.snapshotByLocator(locator, 0) : elements.get(0);
+    }
+
+    /**
+     * Get time left before deadline (fast path may fail in the middle of wait).
+     *
+     * @param deadline Deadline (time in milliseconds, see System.currentTimeMillis()).
+     * @return Remaining time in seconds (0 if deadline is passed).
+     */
+    private static int remainingSeconds(long deadline) {
+        return (int) Math.max(0, (deadline - System.currentTimeMillis()) / 1000);
+    }
+
+    /**
+     * Poll uiautomator dump until lookup finds element.
+     *
+     * @param lookup      Lookup in UI tree of dump.
+     * @param description Description of lookup (used in logs).
+     * @param timeOut     Timeout in seconds.
+     * @return Found elements (empty if not found in time, null if fast path is not available).
+     */
+    private List<SnapshotElement> fromDump(final TreeLookup lookup, String description, int timeOut) {
+        final AndroidFastPath fastPath = this.context.getAndroidFastPath();
+        if (fastPath == null || !fastPath.isAvailable()) {
+            return null;
+        }
+
+        List<SnapshotElement> elements;
+        try {
+            elements = this.waitEngine.until(new Callable<List<SnapshotElement>>() {
+                @Override
+                public List<SnapshotElement> call() {
+                    UITree tree = fastPath.dump();
+                    if (tree == null) {
+                        throw new IllegalStateException("Failed to dump hierarchy.");
+                    }
+                    List<SnapshotElement> result = new ArrayList<>();
+                    for (int node : lookup.find(tree)) {
+                        result.add(new SnapshotElement(tree, node, Find.this.context.client, Find.this.settings, fastPath));
+                    }
+                    return result;
+                }
+            }, timeOut, "Find in uiautomator dump by " + description);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+        if (elements == null) {
+            LOGGER_BASE.debug("Failed to find element in uiautomator dump by " + description + " in " + String.valueOf(timeOut) + " seconds.");
+            return new ArrayList<>();
+        }
+        return elements;
+    }
+
+    /**
+     * Poll page snapshot until lookup finds element.
+     * First poll uses current snapshot (if valid), next polls take new snapshot.
+     *
+     * @param lookup      Lookup in snapshot.
+     * @param description Description of lookup (used in logs).
+     * @param timeOut     Timeout in seconds.
+     * @return First found element (null if not found in time).
+     */
+    private SnapshotElement fromSnapshot(final Callable<List<SnapshotElement>> lookup, String description, int timeOut) {
+        List<SnapshotElement> elements = this.waitEngine.until(new Callable<List<SnapshotElement>>() {
+            private boolean polled;
+
+            @Override
+            public List<SnapshotElement> call() throws Exception {
+                if (this.polled) {
+                    Find.this.snapshot.refresh();
+                }
+                this.polled = true;
+                return lookup.call();
+            }
+        }, timeOut, "Find in page snapshot by " + description);
+        if (elements == null) {
+            LOGGER_BASE.debug("Failed to find element in page snapshot by " + description + " in " + String.valueOf(timeOut) + " seconds.");
+            return null;
+        }
+        return elements.get(0);
+    }
+
+    /**
+     * Find element.
+     *
+     * @param locator     Locator.
+     * @param timeOut     Timeout in seconds.
+     * @param description Description of lookup (used in logs).
+     * @return Element (null if not found in time).
+     */
+    private UIElement byLocator(By locator, int timeOut, String description) {
+        MobileElement element = this.waitEngine.findElement(locator, timeOut);
+        if (element == null) {
+            LOGGER_BASE.debug("Failed to find element by " + description + " in " + String.valueOf(timeOut) + " seconds.");
+            return null;
+        }
+        return new UIElement(element, description, LocatorCompiler.toXpath(locator));
+    }
+
+    private List<UIElement> convertListOfMobileElementToUIElement(List<MobileElement> list, By locator) {
         ArrayList<UIElement> elements = new ArrayList<>();
-        for (MobileElement element : list) {
-            elements.add(new UIElement(element));
+        // Index in XPath matches index in list only if server returns elements in document order.
+        String xpath = LocatorCompiler.isDocumentOrdered(locator) ? LocatorCompiler.toXpath(locator) : null;
+        for (int i = 0; i < list.size(); i++) {
+            elements.add(new UIElement(list.get(i), locator + " [" + i + "]", xpath != null ? "(" + xpath + ")[" + (i + 1) + "]" : null));
         }
         return elements;
     }
+
+    /**
+     * Lookup of nodes in UI tree.
+     */
+    private interface TreeLookup {
+
+        /**
+         * Find nodes.
+         *
+         * @param tree UI tree.
+         * @return Nodes.
+         */
+        int[] find(UITree tree);
+    }
 }
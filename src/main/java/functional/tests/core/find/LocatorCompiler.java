@@ -0,0 +1,471 @@
+package functional.tests.core.find;
+
+import functional.tests.core.enums.PlatformType;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import functional.tests.core.utils.LatencyRecorder;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.MobileBy;
+import io.appium.java_client.MobileElement;
+import io.appium.java_client.remote.AutomationName;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiles text and class lookups into locators and memoizes them per platform, version, control type, text and flags.
+ * Text lookups use the fastest strategy of the automation:
+ * UiSelector on Android (UiAutomator) and predicate string on iOS (XCUITest), XPath for other automations.
+ * If server rejects fast strategy (invalid selector error), XPath is used as fallback (for all next lookups).
+ * UiSelector returns elements per selector (not in document order), so XPath is used when it finds more than one element.
+ * Latency of finds is recorded per strategy (see logStatistics()).
+ */
+public class LocatorCompiler {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("LocatorCompiler");
+    private static final String UI_AUTOMATOR = "uiautomator";
+    private static final String PREDICATE = "-ios predicate string";
+    private static final String XPATH = "xpath";
+    private static final String CLASS_NAME = "class name";
+    // Escaped as character class (UiSelector parser does not unescape backslashes).
+    private static final String REGEX_METACHARACTERS = ".*+?(){}|$";
+    // Can not be escaped without backslash, text with those characters is found by XPath.
+    private static final String UI_SELECTOR_UNSAFE_CHARACTERS = "\\[]^";
+
+    private final Settings settings;
+    private final Map<String, By> cache;
+    private final Map<String, Boolean> unsupportedStrategies;
+    private final LatencyRecorder latencies;
+
+    /**
+     * Init compiler.
+     *
+     * @param settings Settings.
+     */
+    public LocatorCompiler(Settings settings) {
+        this.settings = settings;
+        this.cache = new ConcurrentHashMap<>();
+        this.unsupportedStrategies = new ConcurrentHashMap<>();
+        this.latencies = new LatencyRecorder();
+    }
+
+    /**
+     * Get locator of elements with text (in text, content-desc or resource-id on Android, label or value on iOS, also hint with UIAutomation).
+     *
+     * @param controlType   Class of element ("*" for any element).
+     * @param value         Text.
+     * @param exactMatch    If false, elements that contain the text are found.
+     * @param caseSensitive If false, case is ignored.
+     * @return Locator.
+     */
+    public By byText(String controlType, String value, boolean exactMatch, boolean caseSensitive) {
+        String key = this.settings.platform + "|" + this.settings.platformVersion + "|" + this.settings.automationName + "|"
+                + controlType + "|" + exactMatch + "|" + caseSensitive + "|" + value;
+        By locator = this.cache.get(key);
+        if (locator == null) {
+            By xpath = this.textXpath(controlType, value, exactMatch, caseSensitive);
+            if (this.isUiAutomator() && LocatorCompiler.isUiSelectorSafe(value) && LocatorCompiler.isUiSelectorSafe(controlType)) {
+                String selector = LocatorCompiler.textUiSelector(controlType, value, exactMatch, caseSensitive);
+                locator = new CompiledLocator(UI_AUTOMATOR, MobileBy.AndroidUIAutomator(selector), xpath);
+            } else if (this.isXCUITest()) {
+                String predicate = LocatorCompiler.textPredicate(controlType, value, exactMatch, caseSensitive);
+                locator = new CompiledLocator(PREDICATE, new ByStrategy(PREDICATE, predicate), xpath);
+            } else {
+                locator = new CompiledLocator(XPATH, xpath, null);
+            }
+            this.cache.put(key, locator);
+        }
+        return locator;
+    }
+
+    /**
+     * Get locator of elements by class (class name is native strategy on all automations).
+     *
+     * @param className Class of elements.
+     * @return Locator.
+     */
+    public By byClass(String className) {
+        String key = this.settings.platform + "|" + this.settings.platformVersion + "|class|" + className;
+        By locator = this.cache.get(key);
+        if (locator == null) {
+            locator = new CompiledLocator(CLASS_NAME, By.className(className), null);
+            this.cache.put(key, locator);
+        }
+        return locator;
+    }
+
+    /**
+     * Get locator by XPath (memoized, latency is recorded).
+     *
+     * @param xpath XPath.
+     * @return Locator.
+     */
+    public By byXpath(String xpath) {
+        String key = "xpath|" + xpath;
+        By locator = this.cache.get(key);
+        if (locator == null) {
+            locator = new CompiledLocator(XPATH, By.xpath(xpath), null);
+            this.cache.put(key, locator);
+        }
+        return locator;
+    }
+
+    /**
+     * Get locator that page snapshot can evaluate (see PageSnapshot.findElements()).
+     *
+     * @param locator Locator.
+     * @return XPath, id or className locator that finds the same elements (null if there is no such locator).
+     */
+    public static By toSnapshotLocator(By locator) {
+        By result = locator;
+        if (locator instanceof CompiledLocator) {
+            CompiledLocator compiled = (CompiledLocator) locator;
+            result = compiled.fallback != null ? compiled.fallback : compiled.locator;
+        }
+        if (result instanceof By.ByXPath || result instanceof By.ById || result instanceof By.ByClassName) {
+            return result;
+        }
+        return null;
+    }
+
+    /**
+     * Get XPath equivalent of locator (XPath of locator or XPath fallback of compiled locator).
+     *
+     * @param locator Locator.
+     * @return XPath (null if locator has no XPath equivalent).
+     */
+    public static String toXpath(By locator) {
+        By result = locator;
+        if (locator instanceof CompiledLocator) {
+            CompiledLocator compiled = (CompiledLocator) locator;
+            result = compiled.fallback != null ? compiled.fallback : compiled.locator;
+        }
+        if (result instanceof By.ByXPath) {
+            return result.toString().substring(result.toString().indexOf(':') + 1).trim();
+        }
+        return null;
+    }
+
+    /**
+     * Check if server returns elements found by locator in document order
+     * (so they are in the same order as elements found in page snapshot).
+     *
+     * @param locator Locator.
+     * @return True for xpath, id and className locators (and UiSelector locators, several elements are found by XPath).
+     */
+    public static boolean isDocumentOrdered(By locator) {
+        By result = locator;
+        if (locator instanceof CompiledLocator) {
+            CompiledLocator compiled = (CompiledLocator) locator;
+            if (compiled.fallback != null && !compiled.isFallbackUsed() && !UI_AUTOMATOR.equals(compiled.strategy)) {
+                return false;
+            }
+            result = compiled.fallback != null ? compiled.fallback : compiled.locator;
+        }
+        return result instanceof By.ByXPath || result instanceof By.ById || result instanceof By.ByClassName;
+    }
+
+    /**
+     * Log count, average and max latency of finds per strategy.
+     */
+    public void logStatistics() {
+        this.latencies.log(LOGGER_BASE, "Find by ", "finds");
+    }
+
+    /**
+     * Check if Android session uses UiAutomator (Selendroid does not support UiSelector).
+     *
+     * @return True if UiSelector can be used.
+     */
+    private boolean isUiAutomator() {
+        return this.settings.platform == PlatformType.Andorid && !AutomationName.SELENDROID.equalsIgnoreCase(this.settings.automationName);
+    }
+
+    /**
+     * Check if iOS session uses XCUITest.
+     *
+     * @return True if predicate string can be used.
+     */
+    private boolean isXCUITest() {
+        return this.settings.platform == PlatformType.iOS && AutomationName.IOS_XCUI_TEST.equalsIgnoreCase(this.settings.automationName);
+    }
+
+    /**
+     * Build XPath of text lookup (fallback for all automations).
+     *
+     * @param controlType   Class of element ("*" for any element).
+     * @param value         Text.
+     * @param exactMatch    If false, elements that contain the text are found.
+     * @param caseSensitive If false, case is ignored (Android and XCUITest).
+     * @return Locator.
+     */
+    private By textXpath(String controlType, String value, boolean exactMatch, boolean caseSensitive) {
+        // Case is compared the same way as in UiSelector and predicate lookups.
+        String text = caseSensitive ? value : value.toLowerCase();
+        // Android
+        if (this.settings.platform == PlatformType.Andorid) {
+            return By.xpath("//" + controlType
+                    + "["
+                    + LocatorCompiler.xpathCompare("content-desc", text, exactMatch, caseSensitive) + " or "
+                    + LocatorCompiler.xpathCompare("resource-id", text, exactMatch, caseSensitive) + " or "
+                    + LocatorCompiler.xpathCompare("text", text, exactMatch, caseSensitive)
+                    + "]");
+        } else if (this.settings.platform == PlatformType.iOS) {
+            if (this.isXCUITest()) {
+                return By.xpath("//" + controlType
+                        + "["
+                        + LocatorCompiler.xpathCompare("label", text, exactMatch, caseSensitive) + " or "
+                        + LocatorCompiler.xpathCompare("value", text, exactMatch, caseSensitive)
+                        + "]");
+            }
+            // TODO(): caseSensitive is ignored for iOS with UIAutomation (translate() does not work there).
+            if (exactMatch) {
+                return By.xpath("//" + controlType
+                        + "[@label='" + value + "' or @value='" + value + "' or @hint='" + value + "']");
+            } else {
+                return By.xpath("//" + controlType
+                        + "[contains(@label,'" + value + "') or contains(@value,'" + value + "') or contains(@hint,'" + value + "')]");
+            }
+        } else {
+            String error = "findByText not implemented for platform: " + this.settings.platform;
+            LOGGER_BASE.fatal(error);
+            throw new UnsupportedOperationException(error);
+        }
+    }
+
+    /**
+     * Build XPath condition that compares attribute with text.
+     *
+     * @param attribute     Attribute.
+     * @param text          Text (lower case if case is ignored).
+     * @param exactMatch    If false, attribute that contains the text matches.
+     * @param caseSensitive If false, attribute is converted to lower case.
+     * @return XPath condition.
+     */
+    private static String xpathCompare(String attribute, String text, boolean exactMatch, boolean caseSensitive) {
+        String attributeValue = caseSensitive ? "@" + attribute : LocatorCompiler.xpathToLowerCase(attribute);
+        if (exactMatch) {
+            return String.format("%s=\"%s\"", attributeValue, text);
+        }
+        return String.format("contains(%s,\"%s\")", attributeValue, text);
+    }
+
+    // Doesn't work for iOS 10
+    private static String xpathToLowerCase(String attribute) {
+        return "translate(@" + attribute + ",'ABCDEFGHIJKLMNOPQRSTUVWXYZ','abcdefghijklmnopqrstuvwxyz')";
+    }
+
+    /**
+     * Build UiSelector expression of text lookup (selectors separated by ';' are combined with OR).
+     *
+     * @param controlType   Class of element ("*" for any element).
+     * @param value         Text.
+     * @param exactMatch    If false, elements that contain the text are found.
+     * @param caseSensitive If false, case is ignored.
+     * @return UiSelector expression.
+     */
+    private static String textUiSelector(String controlType, String value, boolean exactMatch, boolean caseSensitive) {
+        String[] methods;
+        String argument;
+        if (exactMatch && caseSensitive) {
+            methods = new String[]{"description", "resourceId", "text"};
+            argument = LocatorCompiler.quoteUiSelector(value);
+        } else {
+            methods = new String[]{"descriptionMatches", "resourceIdMatches", "textMatches"};
+            String regex = (caseSensitive ? "" : "(?is)") + (exactMatch ? "" : ".*") + LocatorCompiler.escapeRegex(value) + (exactMatch ? "" : ".*");
+            argument = LocatorCompiler.quoteUiSelector(regex);
+        }
+        String type = "*".equals(controlType) ? "" : ".className(" + LocatorCompiler.quoteUiSelector(controlType) + ")";
+
+        StringBuilder selector = new StringBuilder();
+        for (String method : methods) {
+            selector.append("new UiSelector()").append(type).append('.').append(method).append('(').append(argument).append(");");
+        }
+        return selector.toString();
+    }
+
+    /**
+     * Build NSPredicate of text lookup.
+     *
+     * @param controlType   Class of element ("*" for any element).
+     * @param value         Text.
+     * @param exactMatch    If false, elements that contain the text are found.
+     * @param caseSensitive If false, case is ignored.
+     * @return Predicate.
+     */
+    private static String textPredicate(String controlType, String value, boolean exactMatch, boolean caseSensitive) {
+        String operator = (exactMatch ? "==" : "CONTAINS") + (caseSensitive ? "" : "[c]");
+        String argument = "'" + value.replace("\\", "\\\\").replace("'", "\\'") + "'";
+        String predicate = "label " + operator + " " + argument + " OR value " + operator + " " + argument;
+        if ("*".equals(controlType)) {
+            return predicate;
+        }
+        return "type == '" + controlType + "' AND (" + predicate + ")";
+    }
+
+    /**
+     * Check if value can be used in UiSelector expression.
+     *
+     * @param value Value.
+     * @return False if value contains characters that can not be escaped in UiSelector regex.
+     */
+    private static boolean isUiSelectorSafe(String value) {
+        for (char c : value.toCharArray()) {
+            if (UI_SELECTOR_UNSAFE_CHARACTERS.indexOf(c) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Escape regex metacharacters as character classes (for example "." as "[.]").
+     *
+     * @param value Value (see isUiSelectorSafe()).
+     * @return Regex that matches value.
+     */
+    private static String escapeRegex(String value) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (REGEX_METACHARACTERS.indexOf(c) >= 0) {
+                regex.append('[').append(c).append(']');
+            } else {
+                regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Quote value as string argument of UiSelector (parser only unescapes quotes).
+     *
+     * @param value Value.
+     * @return Quoted value.
+     */
+    private static String quoteUiSelector(String value) {
+        return "\"" + value.replace("\"", "\\\"") + "\"";
+    }
+
+    /**
+     * Locator that records latency and falls back to XPath if server does not support its strategy.
+     */
+    private class CompiledLocator extends By {
+
+        private final String strategy;
+        private final By locator;
+        private final By fallback;
+
+        /**
+         * Init locator.
+         *
+         * @param strategy Strategy.
+         * @param locator  Locator.
+         * @param fallback XPath locator (null if there is no fallback).
+         */
+        CompiledLocator(String strategy, By locator, By fallback) {
+            this.strategy = strategy;
+            this.locator = locator;
+            this.fallback = fallback;
+        }
+
+        /**
+         * Check if server rejected strategy of locator, so XPath fallback is used.
+         *
+         * @return True if XPath fallback is used.
+         */
+        boolean isFallbackUsed() {
+            return this.fallback != null && LocatorCompiler.this.unsupportedStrategies.containsKey(this.strategy);
+        }
+
+        @Override
+        public List<WebElement> findElements(SearchContext context) {
+            if (this.isFallbackUsed()) {
+                return this.find(XPATH, this.fallback, context);
+            }
+
+            try {
+                List<WebElement> elements = this.find(this.strategy, this.locator, context);
+                if (UI_AUTOMATOR.equals(this.strategy) && elements.size() > 1) {
+                    // Elements are grouped per selector, find them again in document order.
+                    return this.find(XPATH, this.fallback, context);
+                }
+                return elements;
+            } catch (InvalidSelectorException e) {
+                // Appium responds with invalid selector error when strategy is not supported.
+                if (this.fallback == null) {
+                    throw e;
+                }
+                LOGGER_BASE.error("Find by " + this.strategy + " failed, use " + XPATH + " instead: " + e.getMessage());
+                LocatorCompiler.this.unsupportedStrategies.put(this.strategy, true);
+                return this.find(XPATH, this.fallback, context);
+            }
+        }
+
+        /**
+         * Find elements and record latency.
+         *
+         * @param name    Strategy.
+         * @param by      Locator.
+         * @param context Search context.
+         * @return Elements.
+         */
+        private List<WebElement> find(String name, By by, SearchContext context) {
+            long startTime = System.currentTimeMillis();
+            try {
+                return by.findElements(context);
+            } finally {
+                LocatorCompiler.this.latencies.record(name, System.currentTimeMillis() - startTime);
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (this.isFallbackUsed()) {
+                return this.fallback.toString();
+            }
+            return this.locator.toString();
+        }
+    }
+
+    /**
+     * Locator by strategy that is not supported by By and MobileBy (for example predicate string).
+     */
+    private static class ByStrategy extends By {
+
+        private final String strategy;
+        private final String value;
+
+        /**
+         * Init locator.
+         *
+         * @param strategy Strategy (as expected by Appium server).
+         * @param value    Value.
+         */
+        ByStrategy(String strategy, String value) {
+            this.strategy = strategy;
+            this.value = value;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<WebElement> findElements(SearchContext context) {
+            if (context instanceof AppiumDriver) {
+                return ((AppiumDriver<WebElement>) context).findElements(this.strategy, this.value);
+            } else if (context instanceof MobileElement) {
+                return (List<WebElement>) (List<?>) ((MobileElement) context).findElements(this.strategy, this.value);
+            }
+            throw new WebDriverException("Find by " + this.strategy + " is not supported by " + context.getClass().getName());
+        }
+
+        @Override
+        public String toString() {
+            return "By." + this.strategy + ": " + this.value;
+        }
+    }
+}
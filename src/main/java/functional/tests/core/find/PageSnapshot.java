@@ -0,0 +1,359 @@
+package functional.tests.core.find;
+
+import functional.tests.core.appium.Client;
+import functional.tests.core.element.SnapshotElement;
+import functional.tests.core.enums.PlatformType;
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+import org.openqa.selenium.By;
+import org.openqa.selenium.InvalidSelectorException;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.w3c.dom.Document;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Snapshot of page source.
+ * Page source is fetched once and parsed into compact UI tree (see UITree), then text, XPath and spatial lookups
+ * are evaluated locally (no round-trip and no slow server side XPath for each find).
+ * Snapshot is invalidated automatically after any command that may change the page (tap, sendKeys, swipe, etc.),
+ * so next lookup fetches fresh page source. Use refresh() to force new snapshot.
+ */
+public class PageSnapshot {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("PageSnapshot");
+    private static final Pattern READ_ONLY_COMMAND = Pattern.compile(".*/(element|elements|timeouts|timeouts/implicit_wait|source)$");
+    private static final String NODE_INDEX = "nodeIndex";
+    private static final String[] ANDROID_TEXT_ATTRIBUTES = {"content-desc", "resource-id", "text"};
+    private static final String[] IOS_TEXT_ATTRIBUTES = {"label", "value", "hint"};
+
+    private final Client client;
+    private final Settings settings;
+    private final AtomicInteger version;
+    private volatile State state;
+
+    /**
+     * Init snapshot.
+     *
+     * @param client   Appium client.
+     * @param settings Settings.
+     */
+    public PageSnapshot(Client client, Settings settings) {
+        this.client = client;
+        this.settings = settings;
+        this.version = new AtomicInteger();
+    }
+
+    /**
+     * Get factory of http clients that invalidate snapshot when command may change the page.
+     * All commands except GET requests, finds and timeouts invalidate the snapshot.
+     *
+     * @param factory Factory of http clients that execute requests.
+     * @return Http client factory.
+     */
+    public HttpClient.Factory getHttpClientFactory(final HttpClient.Factory factory) {
+        return new HttpClient.Factory() {
+            @Override
+            public HttpClient createClient(URL url) {
+                final HttpClient httpClient = factory.createClient(url);
+                return new HttpClient() {
+                    @Override
+                    public HttpResponse execute(HttpRequest request, boolean followRedirects) throws IOException {
+                        if (request.getMethod() != HttpMethod.GET && !READ_ONLY_COMMAND.matcher(request.getUri()).matches()) {
+                            PageSnapshot.this.invalidate();
+                        }
+                        return httpClient.execute(request, followRedirects);
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        httpClient.close();
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Fetch page source and parse it.
+     *
+     * @throws WebDriverException When page source can not be parsed.
+     */
+    public void refresh() {
+        long startTime = System.currentTimeMillis();
+        String source = this.client.getDriver().getPageSource();
+        UITree tree;
+        try {
+            tree = UITree.parse(source, this.settings.platform);
+        } catch (XMLStreamException e) {
+            this.state = null;
+            throw new WebDriverException("Failed to parse page source: " + e.getMessage(), e);
+        }
+        this.state = new State(source, tree);
+        LOGGER_BASE.debug("Page snapshot with " + tree.size() + " nodes taken in " + (System.currentTimeMillis() - startTime) + " ms.");
+    }
+
+    /**
+     * Drop snapshot (next lookup fetches fresh page source).
+     */
+    public void invalidate() {
+        this.state = null;
+        this.version.incrementAndGet();
+    }
+
+    /**
+     * Get version of page (changed each time snapshot is invalidated).
+     * Used to drop values cached on elements when page may be changed (see UIElement.invalidateGeometry()).
+     *
+     * @return Version of page.
+     */
+    public int getVersion() {
+        return this.version.get();
+    }
+
+    /**
+     * Check if snapshot is taken and page is not changed since.
+     *
+     * @return True if snapshot is valid.
+     */
+    public boolean isValid() {
+        return this.state != null;
+    }
+
+    /**
+     * Get UI tree of snapshot (fetch page source if snapshot is not valid).
+     *
+     * @return UI tree.
+     */
+    public UITree getTree() {
+        return this.getState().tree;
+    }
+
+    /**
+     * Check if locator can be evaluated on page snapshot.
+     *
+     * @param locator Locator.
+     * @return True for xpath, id and className locators.
+     */
+    public static boolean isSupported(By locator) {
+        return locator instanceof By.ByXPath || locator instanceof By.ById || locator instanceof By.ByClassName;
+    }
+
+    /**
+     * Find elements by locator (only xpath, id and className locators are supported, see isSupported()).
+     *
+     * @param locator Locator.
+     * @return Elements.
+     * @throws InvalidSelectorException When locator is not supported.
+     */
+    public List<SnapshotElement> findElements(By locator) {
+        String value = locator.toString().substring(locator.toString().indexOf(':') + 1).trim();
+        if (locator instanceof By.ByXPath) {
+            return this.findElementsByXpath(value);
+        } else if (locator instanceof By.ById) {
+            if (this.settings.platform != PlatformType.Andorid) {
+                return this.findElementsByXpath("//*[@name='" + value + "']");
+            }
+            StringBuilder condition = new StringBuilder();
+            for (String resourceId : PageSnapshot.getResourceIds(value, this.settings.packageId)) {
+                condition.append(condition.length() == 0 ? "" : " or ").append("@resource-id='").append(resourceId).append("'");
+            }
+            return this.findElementsByXpath("//*[" + condition + "]");
+        } else if (locator instanceof By.ByClassName) {
+            return this.findElementsByXpath("//" + value);
+        } else {
+            throw new InvalidSelectorException("Page snapshot does not support locator: " + locator);
+        }
+    }
+
+    /**
+     * Find elements by XPath.
+     * XPath is evaluated on DOM tree, which is parsed from the same page source on first XPath lookup.
+     *
+     * @param xpath XPath.
+     * @return Elements.
+     */
+    public List<SnapshotElement> findElementsByXpath(String xpath) {
+        State current = this.getState();
+        NodeList nodes;
+        try {
+            nodes = (NodeList) XPathFactory.newInstance().newXPath().evaluate(xpath, current.getDocument(), XPathConstants.NODESET);
+        } catch (XPathExpressionException e) {
+            throw new WebDriverException("Invalid xpath: " + xpath, e);
+        }
+
+        List<SnapshotElement> elements = new ArrayList<>();
+        for (int i = 0; i < nodes.getLength(); i++) {
+            Object node = nodes.item(i).getUserData(NODE_INDEX);
+            if (node != null) {
+                elements.add(new SnapshotElement(current.tree, (Integer) node, this.client, this.settings));
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Find elements by text (same attributes as Locators.byText, compared locally instead of XPath translate()).
+     *
+     * @param value         Text.
+     * @param exactMatch    If false, elements that contain the text are found.
+     * @param caseSensitive If false, case is ignored.
+     * @return Elements.
+     */
+    public List<SnapshotElement> findElementsByText(String value, boolean exactMatch, boolean caseSensitive) {
+        UITree tree = this.getTree();
+        return this.toElements(tree, tree.findByText(PageSnapshot.getTextAttributes(this.settings.platform), value, exactMatch, caseSensitive));
+    }
+
+    /**
+     * Get attributes that are compared by text lookups (same as in Locators.byText).
+     *
+     * @param platform Mobile platform.
+     * @return Attributes.
+     */
+    public static String[] getTextAttributes(PlatformType platform) {
+        return platform == PlatformType.Andorid ? ANDROID_TEXT_ATTRIBUTES.clone() : IOS_TEXT_ATTRIBUTES.clone();
+    }
+
+    /**
+     * Get resource ids that Android id locator matches.
+     * Short id (without ":id/") is expanded like Appium does: package of the app first, then "android" package.
+     *
+     * @param id        Id of locator.
+     * @param packageId Package of the app.
+     * @return Resource ids.
+     */
+    public static String[] getResourceIds(String id, String packageId) {
+        if (id.contains(":id/")) {
+            return new String[]{id};
+        }
+        if (packageId == null) {
+            return new String[]{id, "android:id/" + id};
+        }
+        return new String[]{id, packageId + ":id/" + id, "android:id/" + id};
+    }
+
+    /**
+     * Get topmost element at point (for example center of image found by Sikuli).
+     *
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @return Element (null if there is no element at point).
+     */
+    public SnapshotElement elementAt(int x, int y) {
+        UITree tree = this.getTree();
+        int node = tree.nodeAt(x, y);
+        return node == -1 ? null : new SnapshotElement(tree, node, this.client, this.settings);
+    }
+
+    /**
+     * Get elements that intersect rectangle.
+     *
+     * @param rectangle Rectangle.
+     * @return Elements in document order.
+     */
+    public List<SnapshotElement> elementsIntersecting(Rectangle rectangle) {
+        UITree tree = this.getTree();
+        return this.toElements(tree, tree.nodesIntersecting(rectangle));
+    }
+
+    /**
+     * Get visible elements (see UITree.isVisible()).
+     *
+     * @return Elements in document order.
+     */
+    public List<SnapshotElement> visibleElements() {
+        UITree tree = this.getTree();
+        return this.toElements(tree, tree.visibleNodes());
+    }
+
+    /**
+     * Get state of snapshot (fetch page source if snapshot is not valid).
+     *
+     * @return State.
+     */
+    private State getState() {
+        State current = this.state;
+        if (current == null) {
+            this.refresh();
+            current = this.state;
+        }
+        return current;
+    }
+
+    /**
+     * Convert nodes of tree to elements.
+     *
+     * @param tree  UI tree.
+     * @param nodes Nodes.
+     * @return Elements.
+     */
+    private List<SnapshotElement> toElements(UITree tree, int[] nodes) {
+        List<SnapshotElement> elements = new ArrayList<>(nodes.length);
+        for (int node : nodes) {
+            elements.add(new SnapshotElement(tree, node, this.client, this.settings));
+        }
+        return elements;
+    }
+
+    /**
+     * Page source, its UI tree and (on demand) DOM tree for XPath.
+     */
+    private static class State {
+
+        private final String source;
+        private final UITree tree;
+        private Document document;
+
+        /**
+         * Init state.
+         *
+         * @param source Page source.
+         * @param tree   UI tree.
+         */
+        State(String source, UITree tree) {
+            this.source = source;
+            this.tree = tree;
+        }
+
+        /**
+         * Get DOM tree (parsed on first call). Elements are numbered in document order, like nodes of UI tree.
+         *
+         * @return DOM tree.
+         */
+        synchronized Document getDocument() {
+            if (this.document == null) {
+                try {
+                    DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+                    factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+                    this.document = factory.newDocumentBuilder().parse(new InputSource(new StringReader(this.source)));
+                } catch (Exception e) {
+                    throw new WebDriverException("Failed to parse page source: " + e.getMessage(), e);
+                }
+                NodeList elements = this.document.getElementsByTagName("*");
+                for (int i = 0; i < elements.getLength(); i++) {
+                    elements.item(i).setUserData(NODE_INDEX, i, null);
+                }
+            }
+            return this.document;
+        }
+    }
+}
@@ -0,0 +1,599 @@
+package functional.tests.core.find;
+
+import functional.tests.core.enums.PlatformType;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.awt.Rectangle;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compact immutable UI tree built from page source (Appium page source or uiautomator dump).
+ * Nodes are numbered in document order, tags and attributes are interned and bounds are stored in primitive arrays.
+ * Uniform grid over the window indexes bounds of nodes for "element at point", "elements intersecting rectangle"
+ * and "visible in window" queries (nodes outside of window are kept in separate list).
+ */
+public class UITree {
+
+    private static final int CELL_SIZE = 128;
+    private static final Pattern ANDROID_BOUNDS = Pattern.compile("\\[(-?\\d+),(-?\\d+)\\]\\[(-?\\d+),(-?\\d+)\\]");
+    private static final Map<String, String> NAMES = new HashMap<>();
+
+    private final int size;
+    private final String[] tags;
+    private final int[] parents;
+    private final int[] tagIndexes;
+    private final int[] attributeOffsets;
+    private final String[] attributeNames;
+    private final String[] attributeValues;
+    private final int[] bounds;
+    private final Rectangle window;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    private final int[] outside;
+
+    /**
+     * Init tree (see parse()).
+     *
+     * @param builder Parsed nodes.
+     */
+    private UITree(Builder builder) {
+        this.size = builder.size;
+        this.tags = Arrays.copyOf(builder.tags, builder.size);
+        this.parents = Arrays.copyOf(builder.parents, builder.size);
+        this.tagIndexes = Arrays.copyOf(builder.tagIndexes, builder.size);
+        this.attributeOffsets = Arrays.copyOf(builder.attributeOffsets, builder.size + 1);
+        this.attributeOffsets[builder.size] = builder.attributeCount;
+        this.attributeNames = Arrays.copyOf(builder.attributeNames, builder.attributeCount);
+        this.attributeValues = Arrays.copyOf(builder.attributeValues, builder.attributeCount);
+        this.bounds = Arrays.copyOf(builder.bounds, builder.size * 4);
+
+        // Window is bounding box of top level nodes with bounds (application on iOS, windows on Android),
+        // so scrolled out descendants (for example cells of long list) do not extend it.
+        int width = 0;
+        int height = 0;
+        boolean[] inBoundedNode = new boolean[this.size];
+        for (int i = 0; i < this.size; i++) {
+            int parent = this.parents[i];
+            inBoundedNode[i] = parent != -1 && (inBoundedNode[parent] || this.hasBounds(parent));
+            if (this.hasBounds(i) && !inBoundedNode[i]) {
+                width = Math.max(width, this.bounds[i * 4] + this.bounds[i * 4 + 2]);
+                height = Math.max(height, this.bounds[i * 4 + 1] + this.bounds[i * 4 + 3]);
+            }
+        }
+        this.window = new Rectangle(0, 0, width, height);
+        this.columns = Math.max(1, (width + CELL_SIZE - 1) / CELL_SIZE);
+        this.rows = Math.max(1, (height + CELL_SIZE - 1) / CELL_SIZE);
+
+        // Count nodes per cell, then fill cells (nodes stay in document order).
+        int[] counts = new int[this.columns * this.rows];
+        int outsideCount = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.isInsideWindow(i)) {
+                for (int cell : this.getCells(i)) {
+                    counts[cell]++;
+                }
+            } else if (this.hasBounds(i)) {
+                outsideCount++;
+            }
+        }
+        this.cells = new int[counts.length][];
+        for (int cell = 0; cell < counts.length; cell++) {
+            this.cells[cell] = new int[counts[cell]];
+            counts[cell] = 0;
+        }
+        this.outside = new int[outsideCount];
+        outsideCount = 0;
+        for (int i = 0; i < this.size; i++) {
+            if (this.isInsideWindow(i)) {
+                for (int cell : this.getCells(i)) {
+                    this.cells[cell][counts[cell]++] = i;
+                }
+            } else if (this.hasBounds(i)) {
+                this.outside[outsideCount++] = i;
+            }
+        }
+    }
+
+    /**
+     * Parse page source with streaming parser.
+     *
+     * @param source   Page source.
+     * @param platform Mobile platform (Android: bounds="[x1,y1][x2,y2]", iOS: x, y, width and height attributes).
+     * @return Tree.
+     * @throws XMLStreamException When page source is not valid XML.
+     */
+    public static UITree parse(String source, PlatformType platform) throws XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        XMLStreamReader reader = factory.createXMLStreamReader(new StringReader(source));
+
+        Builder builder = new Builder();
+        Map<String, String> values = new HashMap<>();
+        List<Integer> stack = new ArrayList<>();
+        List<Map<String, Integer>> siblingTags = new ArrayList<>();
+        siblingTags.add(new HashMap<String, Integer>());
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    // Nodes of uiautomator dump are named by their class, like nodes of Appium page source.
+                    String tag = reader.getLocalName();
+                    if ("node".equals(tag) && reader.getAttributeValue(null, "class") != null) {
+                        tag = reader.getAttributeValue(null, "class");
+                    }
+                    tag = UITree.internName(tag);
+                    Map<String, Integer> tagCounts = siblingTags.get(siblingTags.size() - 1);
+                    Integer tagIndex = tagCounts.get(tag);
+                    tagIndex = tagIndex == null ? 1 : tagIndex + 1;
+                    tagCounts.put(tag, tagIndex);
+
+                    int node = builder.addNode(tag, stack.isEmpty() ? -1 : stack.get(stack.size() - 1), tagIndex);
+                    for (int i = 0; i < reader.getAttributeCount(); i++) {
+                        String value = reader.getAttributeValue(i);
+                        String interned = values.get(value);
+                        if (interned == null) {
+                            values.put(value, value);
+                            interned = value;
+                        }
+                        builder.addAttribute(UITree.internName(reader.getAttributeLocalName(i)), interned);
+                    }
+                    builder.setBounds(node, UITree.parseBounds(builder, node, platform));
+
+                    stack.add(node);
+                    siblingTags.add(new HashMap<String, Integer>());
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    stack.remove(stack.size() - 1);
+                    siblingTags.remove(siblingTags.size() - 1);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return new UITree(builder);
+    }
+
+    /**
+     * Get number of nodes.
+     *
+     * @return Number of nodes.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Get tag of node (class of element).
+     *
+     * @param node Node.
+     * @return Tag.
+     */
+    public String getTag(int node) {
+        return this.tags[node];
+    }
+
+    /**
+     * Get parent of node.
+     *
+     * @param node Node.
+     * @return Parent (-1 for root).
+     */
+    public int getParent(int node) {
+        return this.parents[node];
+    }
+
+    /**
+     * Get attribute of node.
+     *
+     * @param node Node.
+     * @param name Name of attribute.
+     * @return Value (null if node has no such attribute).
+     */
+    public String getAttribute(int node, String name) {
+        for (int i = this.attributeOffsets[node]; i < this.attributeOffsets[node + 1]; i++) {
+            if (this.attributeNames[i].equals(name)) {
+                return this.attributeValues[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get all attributes of node.
+     *
+     * @param node Node.
+     * @return Values by name.
+     */
+    public Map<String, String> getAttributes(int node) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        for (int i = this.attributeOffsets[node]; i < this.attributeOffsets[node + 1]; i++) {
+            attributes.put(this.attributeNames[i], this.attributeValues[i]);
+        }
+        return attributes;
+    }
+
+    /**
+     * Get bounds of node.
+     *
+     * @param node Node.
+     * @return Bounds (empty rectangle if node has no bounds).
+     */
+    public Rectangle getBounds(int node) {
+        return new Rectangle(this.bounds[node * 4], this.bounds[node * 4 + 1], this.bounds[node * 4 + 2], this.bounds[node * 4 + 3]);
+    }
+
+    /**
+     * Get window (bounding box of top level nodes).
+     *
+     * @return Window.
+     */
+    public Rectangle getWindow() {
+        return new Rectangle(this.window);
+    }
+
+    /**
+     * Get absolute XPath of node (used to find the same element on server).
+     *
+     * @param node Node.
+     * @return XPath.
+     */
+    public String getXpath(int node) {
+        StringBuilder xpath = new StringBuilder();
+        for (int current = node; current != -1; current = this.parents[current]) {
+            xpath.insert(0, "/" + this.tags[current] + "[" + this.tagIndexes[current] + "]");
+        }
+        return xpath.toString();
+    }
+
+    /**
+     * Check if node is not marked as hidden by displayed (Android) or visible (iOS) attribute.
+     *
+     * @param node Node.
+     * @return True if node is displayed.
+     */
+    public boolean isDisplayed(int node) {
+        return !"false".equals(this.getAttribute(node, "displayed")) && !"false".equals(this.getAttribute(node, "visible"));
+    }
+
+    /**
+     * Check if node is visible (has size, its center is in the window and it is not marked as hidden
+     * by displayed (Android) or visible (iOS) attribute).
+     *
+     * @param node Node.
+     * @return True if node is visible.
+     */
+    public boolean isVisible(int node) {
+        return this.hasBounds(node) && this.isDisplayed(node)
+                && this.window.contains(this.bounds[node * 4] + this.bounds[node * 4 + 2] / 2, this.bounds[node * 4 + 1] + this.bounds[node * 4 + 3] / 2);
+    }
+
+    /**
+     * Find nodes with text in any of attributes.
+     *
+     * @param attributes    Attributes to compare.
+     * @param value         Text.
+     * @param exactMatch    If false, nodes that contain the text are found.
+     * @param caseSensitive If false, case is ignored.
+     * @return Nodes in document order.
+     */
+    public int[] findByText(String[] attributes, String value, boolean exactMatch, boolean caseSensitive) {
+        String text = caseSensitive ? value : value.toLowerCase();
+        BitSet result = new BitSet(this.size);
+        for (int node = 0; node < this.size; node++) {
+            for (String attribute : attributes) {
+                String attributeValue = this.getAttribute(node, attribute);
+                if (attributeValue == null) {
+                    continue;
+                }
+                attributeValue = caseSensitive ? attributeValue : attributeValue.toLowerCase();
+                if (exactMatch ? attributeValue.equals(text) : attributeValue.contains(text)) {
+                    result.set(node);
+                    break;
+                }
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    /**
+     * Find nodes with attribute equal to any of values.
+     *
+     * @param attribute Attribute.
+     * @param values    Values.
+     * @return Nodes in document order.
+     */
+    public int[] findByAttribute(String attribute, String... values) {
+        BitSet result = new BitSet(this.size);
+        for (int node = 0; node < this.size; node++) {
+            String attributeValue = this.getAttribute(node, attribute);
+            if (attributeValue != null && Arrays.asList(values).contains(attributeValue)) {
+                result.set(node);
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    /**
+     * Find nodes by tag (class of element).
+     *
+     * @param tag Tag.
+     * @return Nodes in document order.
+     */
+    public int[] findByTag(String tag) {
+        BitSet result = new BitSet(this.size);
+        for (int node = 0; node < this.size; node++) {
+            if (this.tags[node].equals(tag)) {
+                result.set(node);
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    /**
+     * Get topmost node at point (last node in document order that contains the point).
+     *
+     * @param x X coordinate.
+     * @param y Y coordinate.
+     * @return Node (-1 if there is no node at point).
+     */
+    public int nodeAt(int x, int y) {
+        int result = -1;
+        if (this.window.contains(x, y)) {
+            for (int node : this.cells[(y / CELL_SIZE) * this.columns + x / CELL_SIZE]) {
+                if (node > result && this.containsPoint(node, x, y)) {
+                    result = node;
+                }
+            }
+        }
+        for (int node : this.outside) {
+            if (node > result && this.containsPoint(node, x, y)) {
+                result = node;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get nodes that intersect rectangle.
+     *
+     * @param rectangle Rectangle.
+     * @return Nodes in document order.
+     */
+    public int[] nodesIntersecting(Rectangle rectangle) {
+        BitSet result = new BitSet(this.size);
+        Rectangle visible = rectangle.intersection(this.window);
+        if (!visible.isEmpty()) {
+            int lastColumn = Math.min(this.columns - 1, (visible.x + visible.width - 1) / CELL_SIZE);
+            int lastRow = Math.min(this.rows - 1, (visible.y + visible.height - 1) / CELL_SIZE);
+            for (int row = visible.y / CELL_SIZE; row <= lastRow; row++) {
+                for (int column = visible.x / CELL_SIZE; column <= lastColumn; column++) {
+                    for (int node : this.cells[row * this.columns + column]) {
+                        if (!result.get(node) && rectangle.intersects(this.getBounds(node))) {
+                            result.set(node);
+                        }
+                    }
+                }
+            }
+        }
+        for (int node : this.outside) {
+            if (rectangle.intersects(this.getBounds(node))) {
+                result.set(node);
+            }
+        }
+        return result.stream().toArray();
+    }
+
+    /**
+     * Get visible nodes (see isVisible()).
+     *
+     * @return Nodes in document order.
+     */
+    public int[] visibleNodes() {
+        int[] candidates = this.nodesIntersecting(this.window);
+        int count = 0;
+        for (int node : candidates) {
+            if (this.isVisible(node)) {
+                candidates[count++] = node;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Check if node has size.
+     *
+     * @param node Node.
+     * @return True if width and height of node are positive.
+     */
+    private boolean hasBounds(int node) {
+        return this.bounds[node * 4 + 2] > 0 && this.bounds[node * 4 + 3] > 0;
+    }
+
+    /**
+     * Check if node has size and is inside the window (at least partially).
+     *
+     * @param node Node.
+     * @return True if node is indexed in grid.
+     */
+    private boolean isInsideWindow(int node) {
+        return this.hasBounds(node) && this.window.intersects(this.getBounds(node)) && this.bounds[node * 4] >= 0 && this.bounds[node * 4 + 1] >= 0;
+    }
+
+    /**
+     * Check if bounds of node contain point.
+     *
+     * @param node Node.
+     * @param x    X coordinate.
+     * @param y    Y coordinate.
+     * @return True if point is in node.
+     */
+    private boolean containsPoint(int node, int x, int y) {
+        int left = this.bounds[node * 4];
+        int top = this.bounds[node * 4 + 1];
+        return x >= left && y >= top && x < left + this.bounds[node * 4 + 2] && y < top + this.bounds[node * 4 + 3];
+    }
+
+    /**
+     * Get grid cells covered by node.
+     *
+     * @param node Node inside window.
+     * @return Cells.
+     */
+    private int[] getCells(int node) {
+        int firstColumn = this.bounds[node * 4] / CELL_SIZE;
+        int firstRow = this.bounds[node * 4 + 1] / CELL_SIZE;
+        int lastColumn = Math.min(this.columns - 1, (this.bounds[node * 4] + this.bounds[node * 4 + 2] - 1) / CELL_SIZE);
+        int lastRow = Math.min(this.rows - 1, (this.bounds[node * 4 + 1] + this.bounds[node * 4 + 3] - 1) / CELL_SIZE);
+        int[] result = new int[(lastColumn - firstColumn + 1) * (lastRow - firstRow + 1)];
+        int count = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                result[count++] = row * this.columns + column;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parse bounds of node.
+     *
+     * @param builder  Parsed nodes.
+     * @param node     Node.
+     * @param platform Mobile platform.
+     * @return X, y, width and height (zeros if node has no bounds).
+     */
+    private static int[] parseBounds(Builder builder, int node, PlatformType platform) {
+        if (platform == PlatformType.Andorid) {
+            String value = builder.getAttribute(node, "bounds");
+            Matcher matcher = value != null ? ANDROID_BOUNDS.matcher(value) : null;
+            if (matcher != null && matcher.matches()) {
+                int x1 = Integer.parseInt(matcher.group(1));
+                int y1 = Integer.parseInt(matcher.group(2));
+                return new int[]{x1, y1, Integer.parseInt(matcher.group(3)) - x1, Integer.parseInt(matcher.group(4)) - y1};
+            }
+        } else {
+            try {
+                return new int[]{
+                        (int) Double.parseDouble(builder.getAttribute(node, "x")),
+                        (int) Double.parseDouble(builder.getAttribute(node, "y")),
+                        (int) Double.parseDouble(builder.getAttribute(node, "width")),
+                        (int) Double.parseDouble(builder.getAttribute(node, "height"))};
+            } catch (NullPointerException | NumberFormatException e) {
+                return new int[4];
+            }
+        }
+        return new int[4];
+    }
+
+    /**
+     * Intern name of tag or attribute (names are shared by all trees).
+     *
+     * @param name Name.
+     * @return Interned name.
+     */
+    private static String internName(String name) {
+        synchronized (NAMES) {
+            String interned = NAMES.get(name);
+            if (interned == null) {
+                NAMES.put(name, name);
+                interned = name;
+            }
+            return interned;
+        }
+    }
+
+    /**
+     * Growable arrays of nodes used while page source is parsed.
+     */
+    private static class Builder {
+
+        private int size;
+        private int attributeCount;
+        private String[] tags = new String[256];
+        private int[] parents = new int[256];
+        private int[] tagIndexes = new int[256];
+        private int[] attributeOffsets = new int[257];
+        private int[] bounds = new int[1024];
+        private String[] attributeNames = new String[2048];
+        private String[] attributeValues = new String[2048];
+
+        /**
+         * Add node (attributes of node are added after it).
+         *
+         * @param tag      Tag.
+         * @param parent   Parent node (-1 for root).
+         * @param tagIndex Position among siblings with the same tag (starts from 1).
+         * @return Node.
+         */
+        int addNode(String tag, int parent, int tagIndex) {
+            if (this.size == this.tags.length) {
+                int capacity = this.size * 2;
+                this.tags = Arrays.copyOf(this.tags, capacity);
+                this.parents = Arrays.copyOf(this.parents, capacity);
+                this.tagIndexes = Arrays.copyOf(this.tagIndexes, capacity);
+                this.attributeOffsets = Arrays.copyOf(this.attributeOffsets, capacity + 1);
+                this.bounds = Arrays.copyOf(this.bounds, capacity * 4);
+            }
+            this.tags[this.size] = tag;
+            this.parents[this.size] = parent;
+            this.tagIndexes[this.size] = tagIndex;
+            this.attributeOffsets[this.size] = this.attributeCount;
+            return this.size++;
+        }
+
+        /**
+         * Add attribute of last node.
+         *
+         * @param name  Name.
+         * @param value Value.
+         */
+        void addAttribute(String name, String value) {
+            if (this.attributeCount == this.attributeNames.length) {
+                this.attributeNames = Arrays.copyOf(this.attributeNames, this.attributeCount * 2);
+                this.attributeValues = Arrays.copyOf(this.attributeValues, this.attributeCount * 2);
+            }
+            this.attributeNames[this.attributeCount] = name;
+            this.attributeValues[this.attributeCount] = value;
+            this.attributeCount++;
+        }
+
+        /**
+         * Get attribute of node that is being parsed.
+         *
+         * @param node Last added node.
+         * @param name Name of attribute.
+         * @return Value (null if node has no such attribute).
+         */
+        String getAttribute(int node, String name) {
+            for (int i = this.attributeOffsets[node]; i < this.attributeCount; i++) {
+                if (this.attributeNames[i].equals(name)) {
+                    return this.attributeValues[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Set bounds of node.
+         *
+         * @param node  Node.
+         * @param value X, y, width and height.
+         */
+        void setBounds(int node, int[] value) {
+            System.arraycopy(value, 0, this.bounds, node * 4, 4);
+        }
+    }
+}
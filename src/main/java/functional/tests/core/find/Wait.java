@@ -1,17 +1,21 @@
 package functional.tests.core.find;
 
-import functional.tests.core.appium.Client;
 import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.element.SnapshotElement;
 import functional.tests.core.element.UIElement;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
-import org.apache.commons.lang.NotImplementedException;
+import io.appium.java_client.MobileElement;
 import org.openqa.selenium.By;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.WebDriverException;
 import org.testng.Assert;
 
-import java.util.Date;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * TODO(): Add docs.
@@ -19,8 +23,9 @@ import java.util.List;
 public class Wait {
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("Wait");
 
-    private Client client;
-    private Find find;
+    private Context context;
+    private WaitEngine waitEngine;
+    private PageSnapshot snapshot;
     private Settings settings;
 
     public Wait() {
@@ -28,8 +33,9 @@ public class Wait {
     }
 
     public Wait(Context context) {
-        this.client = context.client;
-        this.find = context.find;
+        this.context = context;
+        this.waitEngine = new WaitEngine(context.client, context.settings);
+        this.snapshot = context.client.snapshot;
         this.settings = context.settings;
     }
 
@@ -41,43 +47,216 @@ public class Wait {
         }
     }
 
+    /**
+     * Wait until condition is satisfied (see ConditionPoller).
+     * Condition is satisfied when it returns value that is not null, false or empty collection.
+     *
+     * @param condition Condition.
+     * @param timeOut   Timeout in seconds.
+     * @param <T>       Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     */
+    public <T> T waitUntil(Callable<T> condition, int timeOut) {
+        return this.waitEngine.until(condition, timeOut);
+    }
+
     /**
      * Wait for element until it gets visible.
      * (Android) Visible == Center of the element is inside view port.
      * (iOS) Visible == Top left corner of the element is inside view port.
+     * If locator matches several elements, visibility of all of them is checked at once in page snapshot
+     * (see firstVisible()).
      *
      * @param locator          Locator for element.
      * @param timeOut          Timeout.
      * @param failOnNotVisible If true this method will fail. If false and element not found it will return null.
      * @return UIElement (if found).
      */
-    public UIElement waitForVisible(By locator, int timeOut, boolean failOnNotVisible) {
-        List<UIElement> results;
-        this.client.setWait(timeOut);
+    public UIElement waitForVisible(final By locator, int timeOut, boolean failOnNotVisible) {
+        UIElement result = this.waitEngine.until(new Callable<UIElement>() {
+            @Override
+            public UIElement call() {
+                return Wait.this.firstVisible(locator, Wait.this.waitEngine.findNow(null, locator));
+            }
+        }, timeOut, "Wait for visible " + locator);
 
-        try {
-            results = this.find.elementsByLocator(locator);
-        } catch (Exception e) {
-            results = null;
+        if (result == null && failOnNotVisible) {
+            Assert.fail("Failed to find element: " + locator.toString());
         }
 
-        this.client.setWait(this.settings.defaultTimeout);
+        return result;
+    }
 
-        if (results != null) {
-            for (UIElement element : results) {
-                if (element.isVisible()) {
-                    return element;
+    /**
+     * Get first visible element.
+     * If there are several elements and locator can be evaluated in page snapshot, bounds and displayed state
+     * of all elements are read from one page source, so there are no per-element requests.
+     * Otherwise each element is checked by UIElement.isVisible() (both ways use the same rule).
+     *
+     * @param locator  Locator the elements are found by.
+     * @param elements Found elements.
+     * @return First visible element (null if no element is visible).
+     */
+    private UIElement firstVisible(By locator, List<MobileElement> elements) {
+        By snapshotLocator = LocatorCompiler.toSnapshotLocator(locator);
+        if (elements.size() > 1 && snapshotLocator != null) {
+            try {
+                this.snapshot.refresh();
+                List<SnapshotElement> matches = this.snapshot.findElements(snapshotLocator);
+                // Snapshot is trusted only if it sees all elements found on server (otherwise page is changed meanwhile
+                // or locator matches differently in snapshot).
+                if (matches.size() >= elements.size()) {
+                    return this.firstVisibleInSnapshot(locator, matches, elements);
                 }
+                LOGGER_BASE.debug("Page snapshot has " + matches.size() + " of " + elements.size() + " elements by " + locator + ", check each element.");
+            } catch (WebDriverException e) {
+                LOGGER_BASE.debug("Failed to check visibility in page snapshot: " + e.getMessage());
             }
-        } else {
-            new NotImplementedException("This platform: " + this.settings.platform + " is not implemented");
         }
 
+        for (MobileElement element : elements) {
+            UIElement uiElement = new UIElement(element, locator.toString());
+            if (uiElement.isVisible()) {
+                return uiElement;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get first visible element according to page snapshot.
+     *
+     * @param locator  Locator the elements are found by.
+     * @param matches  Elements found in page snapshot.
+     * @param elements Elements found on server.
+     * @return First visible element (null if no element is visible).
+     */
+    private UIElement firstVisibleInSnapshot(By locator, List<SnapshotElement> matches, List<MobileElement> elements) {
+        Dimension window = this.context.device.getWindowSize();
+        for (int i = 0; i < matches.size(); i++) {
+            if (!matches.get(i).isVisible(window)) {
+                continue;
+            }
 
-        if (failOnNotVisible) {
-            Assert.fail("Failed to find element: " + locator.toString());
+            // Server returns elements in the same order as snapshot, if page is not changed meanwhile.
+            if (matches.size() == elements.size() && LocatorCompiler.isDocumentOrdered(locator)) {
+                return new UIElement(elements.get(i), locator.toString());
+            }
+            return this.resolve(locator, matches.get(i));
         }
+        return null;
+    }
 
+    /**
+     * Find element of page snapshot on server (by absolute XPath).
+     *
+     * @param locator Locator the element is found by (used in logs).
+     * @param match   Element of page snapshot.
+     * @return Element (null if page is changed and element is not found).
+     */
+    private UIElement resolve(By locator, SnapshotElement match) {
+        List<MobileElement> resolved = this.waitEngine.findNow(null, By.xpath(match.getXpath()));
+        return resolved.isEmpty() ? null : new UIElement(resolved.get(0), locator.toString());
+    }
+
+    /**
+     * Wait until condition is satisfied without blocking (see WaitEngine.untilAsync()).
+     *
+     * @param condition Condition.
+     * @param timeOut   Timeout in seconds.
+     * @param <T>       Type of result.
+     * @return Future result of condition (completes with null if condition is not satisfied in time).
+     */
+    public <T> CompletableFuture<T> waitUntilAsync(Callable<T> condition, int timeOut) {
+        return this.waitEngine.untilAsync(condition, timeOut);
+    }
+
+    /**
+     * Wait for first visible element of several alternatives (for example dialog or next page) without blocking.
+     * All locators are checked on each poll against one page snapshot (locators that snapshot can not evaluate
+     * are found on server), so branching flow waits max(wait) instead of sum(wait).
+     * Cancel the future to stop polling.
+     *
+     * @param timeOut  Timeout in seconds.
+     * @param locators Locators of alternative elements.
+     * @return Future first visible element (completes with null if no element is visible in time).
+     */
+    public CompletableFuture<UIElement> waitForAnyVisible(int timeOut, final By... locators) {
+        return this.waitEngine.untilAsync(new Callable<UIElement>() {
+            @Override
+            public UIElement call() {
+                Wait.this.refreshSnapshotFor(locators);
+                for (By locator : locators) {
+                    UIElement element = Wait.this.visibleNow(locator);
+                    if (element != null) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+        }, timeOut, "Wait for any visible of " + locators.length + " locators");
+    }
+
+    /**
+     * Wait until all elements are visible without blocking.
+     * All locators are checked on each poll against one page snapshot (see waitForAnyVisible()).
+     * Cancel the future to stop polling.
+     *
+     * @param timeOut  Timeout in seconds.
+     * @param locators Locators of elements.
+     * @return Future visible elements in order of locators (completes with null if not all elements are visible in time).
+     */
+    public CompletableFuture<List<UIElement>> waitForAll(int timeOut, final By... locators) {
+        return this.waitEngine.untilAsync(new Callable<List<UIElement>>() {
+            @Override
+            public List<UIElement> call() {
+                Wait.this.refreshSnapshotFor(locators);
+                List<UIElement> elements = new ArrayList<>();
+                for (By locator : locators) {
+                    UIElement element = Wait.this.visibleNow(locator);
+                    if (element == null) {
+                        return null;
+                    }
+                    elements.add(element);
+                }
+                return elements;
+            }
+        }, timeOut, "Wait for all visible of " + locators.length + " locators");
+    }
+
+    /**
+     * Take new page snapshot if any of locators can be evaluated in page snapshot.
+     *
+     * @param locators Locators.
+     */
+    private void refreshSnapshotFor(By[] locators) {
+        for (By locator : locators) {
+            if (LocatorCompiler.toSnapshotLocator(locator) != null) {
+                this.snapshot.refresh();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get first visible element without waiting.
+     * Locators that page snapshot can evaluate are checked in current snapshot (only visible element is found on server),
+     * other locators are found on server.
+     *
+     * @param locator Locator.
+     * @return First visible element (null if no element is visible).
+     */
+    private UIElement visibleNow(By locator) {
+        By snapshotLocator = LocatorCompiler.toSnapshotLocator(locator);
+        if (snapshotLocator == null) {
+            return this.firstVisible(locator, this.waitEngine.findNow(null, locator));
+        }
+        Dimension window = this.context.device.getWindowSize();
+        for (SnapshotElement match : this.snapshot.findElements(snapshotLocator)) {
+            if (match.isVisible(window)) {
+                return this.resolve(locator, match);
+            }
+        }
         return null;
     }
 
@@ -89,28 +268,19 @@ public class Wait {
         return this.waitForVisible(locator, this.settings.defaultTimeout, false);
     }
 
-    public boolean waitForNotVisible(By locator, int timeOut, boolean failOnVisible) {
-        this.client.setWait(1);
-        long startTime = new Date().getTime();
-        boolean found = true;
-        for (int i = 0; i < 1000; i++) {
-            long currentTime = new Date().getTime();
-            if ((currentTime - startTime) < timeOut * 1000) {
-                List<UIElement> elements = null;
-                try {
-                    elements = this.find.elementsByLocator(locator);
-                } catch (Exception e) {
-                }
-
-                if ((elements != null) && (elements.size() != 0)) {
-                    LOGGER_BASE.debug("OldElement exists: " + locator.toString());
-                } else {
-                    found = false;
-                    break;
+    public boolean waitForNotVisible(final By locator, int timeOut, boolean failOnVisible) {
+        Boolean notFound = this.waitEngine.until(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                if (Wait.this.waitEngine.findNow(null, locator).isEmpty()) {
+                    return true;
                 }
+                LOGGER_BASE.debug("OldElement exists: " + locator.toString());
+                return false;
             }
-        }
-        this.client.setWait(this.settings.defaultTimeout);
+        }, timeOut, "Wait for not visible " + locator);
+
+        boolean found = notFound == null;
         if (found) {
             String error = "OldElement still visible: " + locator.toString();
             LOGGER_BASE.error(error);
@@ -0,0 +1,144 @@
+package functional.tests.core.find;
+
+import functional.tests.core.log.LoggerBase;
+import org.testng.Assert;
+
+/**
+ * Time budget of current test.
+ * Deadline of each wait is clamped to deadline of the budget, so broken test ends when its budget is spent
+ * instead of waiting for one timeout after another. When budget is exhausted, next wait fails immediately.
+ * Budget is bound to test thread (see start() and bind()), time spent in each wait is logged.
+ */
+public class WaitBudget {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("WaitBudget");
+    private static final ThreadLocal<WaitBudget> CURRENT = new ThreadLocal<>();
+
+    private final String testName;
+    private final int seconds;
+    private final long deadline;
+    private int waits;
+    private long spent;
+    private long maxWait;
+
+    /**
+     * Init budget.
+     *
+     * @param testName Name of test.
+     * @param seconds  Budget in seconds.
+     */
+    private WaitBudget(String testName, int seconds) {
+        this.testName = testName;
+        this.seconds = seconds;
+        this.deadline = System.currentTimeMillis() + seconds * 1000L;
+    }
+
+    /**
+     * Start budget of test on current thread.
+     *
+     * @param testName Name of test.
+     * @param seconds  Budget in seconds (0 or less means no budget).
+     */
+    public static void start(String testName, int seconds) {
+        if (seconds > 0) {
+            WaitBudget.CURRENT.set(new WaitBudget(testName, seconds));
+            LOGGER_BASE.info("Time budget of " + testName + ": " + seconds + " seconds.");
+        } else {
+            WaitBudget.CURRENT.remove();
+        }
+    }
+
+    /**
+     * Stop budget of current thread and log time spent in waits.
+     */
+    public static void stop() {
+        WaitBudget budget = WaitBudget.CURRENT.get();
+        if (budget != null) {
+            WaitBudget.CURRENT.remove();
+            LOGGER_BASE.info(budget.testName + " spent " + budget.spent + " ms in " + budget.waits + " waits (max wait "
+                    + budget.maxWait + " ms, budget " + budget.seconds + " seconds).");
+        }
+    }
+
+    /**
+     * Get budget of current thread.
+     *
+     * @return Budget (null if test has no budget).
+     */
+    public static WaitBudget current() {
+        return WaitBudget.CURRENT.get();
+    }
+
+    /**
+     * Bind budget to current thread (for example to worker thread of async wait).
+     *
+     * @param budget Budget (null to remove budget from current thread).
+     */
+    public static void bind(WaitBudget budget) {
+        if (budget != null) {
+            WaitBudget.CURRENT.set(budget);
+        } else {
+            WaitBudget.CURRENT.remove();
+        }
+    }
+
+    /**
+     * Clamp deadline of wait to deadline of budget.
+     *
+     * @param deadline Deadline of wait (time in milliseconds, see System.currentTimeMillis()).
+     * @return Earlier of both deadlines (deadline of wait if test has no budget).
+     * @throws AssertionError When budget is exhausted.
+     */
+    public static long clamp(long deadline) {
+        WaitBudget budget = WaitBudget.CURRENT.get();
+        if (budget == null) {
+            return deadline;
+        }
+        if (System.currentTimeMillis() >= budget.deadline) {
+            WaitBudget.fail(budget);
+        }
+        return Math.min(deadline, budget.deadline);
+    }
+
+    /**
+     * Record time spent in wait.
+     * Fails if wait is not satisfied because budget is exhausted.
+     *
+     * @param description Description of wait (used in logs).
+     * @param startTime   Start time of wait in milliseconds.
+     * @param satisfied   True if wait is satisfied.
+     * @throws AssertionError When wait is not satisfied and budget is exhausted.
+     */
+    public static void record(String description, long startTime, boolean satisfied) {
+        WaitBudget budget = WaitBudget.CURRENT.get();
+        if (budget == null) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long time = now - startTime;
+        synchronized (budget) {
+            budget.waits++;
+            budget.spent += time;
+            budget.maxWait = Math.max(budget.maxWait, time);
+        }
+        if (LOGGER_BASE.isDebugEnabled()) {
+            LOGGER_BASE.debug(description + " took " + time + " ms (" + Math.max(0, budget.deadline - now) + " ms of budget left).");
+        }
+        if (!satisfied && now >= budget.deadline) {
+            WaitBudget.fail(budget);
+        }
+    }
+
+    /**
+     * Fail test because budget is exhausted.
+     *
+     * @param budget Budget.
+     */
+    private static void fail(WaitBudget budget) {
+        String error = "Time budget of " + budget.testName + " (" + budget.seconds + " seconds) is exhausted after "
+                + budget.waits + " waits.";
+        LOGGER_BASE.error(error);
+        Assert.fail(error);
+    }
+}
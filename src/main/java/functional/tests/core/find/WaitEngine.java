@@ -0,0 +1,248 @@
+package functional.tests.core.find;
+
+import functional.tests.core.appium.Client;
+import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.settings.Settings;
+import io.appium.java_client.MobileElement;
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Client side wait engine.
+ * Implicit wait of Appium session is set to 0 while conditions are polled on client side and restored after,
+ * so there are no additional commands (and sleeps) to change implicit wait for each find in poll
+ * and implicit wait set with Client.setWait() still applies to direct driver calls.
+ * Poll interval starts from waitPollInterval and grows by waitPollBackoff up to MAX_POLL_INTERVAL.
+ */
+public class WaitEngine {
+
+    private static final int MAX_POLL_INTERVAL = 1000;
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "wait-engine");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private Client client;
+    private Settings settings;
+
+    /**
+     * Init wait engine.
+     *
+     * @param client   Appium client.
+     * @param settings Settings.
+     */
+    public WaitEngine(Client client, Settings settings) {
+        this.client = client;
+        this.settings = settings;
+    }
+
+    /**
+     * Poll condition until it is satisfied or timeout (see ConditionPoller).
+     * Condition is satisfied when it returns value that is not null, false or empty collection.
+     *
+     * @param condition Condition.
+     * @param timeOut   Timeout in seconds.
+     * @param <T>       Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     */
+    public <T> T until(Callable<T> condition, int timeOut) {
+        return this.untilDeadline(condition, System.currentTimeMillis() + timeOut * 1000L);
+    }
+
+    /**
+     * Poll condition until it is satisfied or timeout (see ConditionPoller).
+     *
+     * @param condition   Condition.
+     * @param timeOut     Timeout in seconds.
+     * @param description Description of wait (used in logs of time budget, see WaitBudget).
+     * @param <T>         Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     */
+    public <T> T until(Callable<T> condition, int timeOut, String description) {
+        return this.untilDeadline(condition, System.currentTimeMillis() + timeOut * 1000L, description);
+    }
+
+    /**
+     * Poll condition until it is satisfied or deadline is reached (see ConditionPoller).
+     * Deadline is clamped to time budget of current test (see WaitBudget).
+     *
+     * @param condition Condition.
+     * @param deadline  Deadline (time in milliseconds, see System.currentTimeMillis()).
+     * @param <T>       Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     */
+    public <T> T untilDeadline(Callable<T> condition, long deadline) {
+        return this.untilDeadline(condition, deadline, null);
+    }
+
+    /**
+     * Poll condition until it is satisfied or deadline is reached (see ConditionPoller).
+     * Deadline is clamped to time budget of current test (see WaitBudget).
+     *
+     * @param condition   Condition.
+     * @param deadline    Deadline (time in milliseconds, see System.currentTimeMillis()).
+     * @param description Description of wait (used in logs of time budget, null for generic description).
+     * @param <T>         Type of result.
+     * @return Result of condition (null if condition is not satisfied in time).
+     */
+    public <T> T untilDeadline(Callable<T> condition, long deadline, String description) {
+        long startTime = System.currentTimeMillis();
+        long clampedDeadline = WaitBudget.clamp(deadline);
+        int implicitWait = this.client.suspendImplicitWait();
+        T result;
+        try {
+            result = this.getPoller().pollUntil(condition, clampedDeadline);
+        } finally {
+            this.client.setImplicitWait(implicitWait);
+        }
+        String wait = description != null ? description : "Wait";
+        WaitBudget.record(wait + " with timeout " + (deadline - startTime) + " ms", startTime, result != null);
+        return result;
+    }
+
+    /**
+     * Poll condition in background until it is satisfied or timeout.
+     * Future completes with result of condition (null if condition is not satisfied in time).
+     * Cancel the future to stop polling (polling stops before next evaluation of condition).
+     *
+     * @param condition Condition.
+     * @param timeOut   Timeout in seconds.
+     * @param <T>       Type of result.
+     * @return Future result of condition.
+     */
+    public <T> CompletableFuture<T> untilAsync(final Callable<T> condition, int timeOut) {
+        return this.untilAsync(condition, timeOut, null);
+    }
+
+    /**
+     * Poll condition in background until it is satisfied or timeout (see untilAsync(Callable, int)).
+     *
+     * @param condition   Condition.
+     * @param timeOut     Timeout in seconds.
+     * @param description Description of wait (used in logs of time budget, null for generic description).
+     * @param <T>         Type of result.
+     * @return Future result of condition.
+     */
+    public <T> CompletableFuture<T> untilAsync(final Callable<T> condition, int timeOut, final String description) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final long deadline = System.currentTimeMillis() + timeOut * 1000L;
+        final String appConfig = TestContextSetupManager.getAppConfig();
+        final WaitBudget budget = WaitBudget.current();
+        WaitEngine.EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Elements created by condition belong to the same test context as caller.
+                TestContextSetupManager.bind(appConfig);
+                WaitBudget.bind(budget);
+                try {
+                    future.complete(WaitEngine.this.untilDeadline(new Callable<T>() {
+                        @Override
+                        public T call() throws Exception {
+                            if (future.isDone()) {
+                                throw new CancellationException();
+                            }
+                            return condition.call();
+                        }
+                    }, deadline, description));
+                } catch (CancellationException e) {
+                    // Future is cancelled (or completed), nothing to report.
+                } catch (RuntimeException e) {
+                    future.completeExceptionally(e);
+                } catch (AssertionError e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    WaitBudget.bind(null);
+                    TestContextSetupManager.unbind();
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Get poller with interval and backoff from settings.
+     *
+     * @return Condition poller.
+     */
+    public ConditionPoller getPoller() {
+        return new ConditionPoller(this.settings.waitPollInterval, this.settings.waitPollBackoff, MAX_POLL_INTERVAL, this.client.health);
+    }
+
+    /**
+     * Find element.
+     *
+     * @param locator Locator.
+     * @param timeOut Timeout in seconds.
+     * @return Element (null if not found in time).
+     */
+    public MobileElement findElement(By locator, int timeOut) {
+        return this.findElement(null, locator, timeOut);
+    }
+
+    /**
+     * Find element inside parent.
+     *
+     * @param parent  Parent element (if null find in whole page).
+     * @param locator Locator.
+     * @param timeOut Timeout in seconds.
+     * @return Element (null if not found in time).
+     */
+    public MobileElement findElement(final SearchContext parent, final By locator, int timeOut) {
+        return this.until(new Callable<MobileElement>() {
+            @Override
+            public MobileElement call() {
+                List<MobileElement> elements = WaitEngine.this.findNow(parent, locator);
+                return elements.isEmpty() ? null : elements.get(0);
+            }
+        }, timeOut, "Find " + locator);
+    }
+
+    /**
+     * Find elements (wait until at least one element is found).
+     *
+     * @param locator Locator.
+     * @param timeOut Timeout in seconds.
+     * @return Elements (empty if not found in time).
+     */
+    public List<MobileElement> findElements(final By locator, int timeOut) {
+        List<MobileElement> elements = this.until(new Callable<List<MobileElement>>() {
+            @Override
+            public List<MobileElement> call() {
+                return WaitEngine.this.findNow(null, locator);
+            }
+        }, timeOut, "Find elements " + locator);
+        return elements == null ? new ArrayList<MobileElement>() : elements;
+    }
+
+    /**
+     * Find elements without waiting.
+     *
+     * @param parent  Parent element (if null find in whole page).
+     * @param locator Locator.
+     * @return Elements.
+     */
+    @SuppressWarnings("unchecked")
+    public List<MobileElement> findNow(SearchContext parent, By locator) {
+        // Inside of poll implicit wait is already 0, so restore does not send command.
+        int implicitWait = this.client.suspendImplicitWait();
+        try {
+            SearchContext searchContext = parent != null ? parent : this.client.getDriver();
+            return (List<MobileElement>) (List<?>) searchContext.findElements(locator);
+        } finally {
+            this.client.setImplicitWait(implicitWait);
+        }
+    }
+}
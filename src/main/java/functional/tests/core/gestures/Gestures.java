@@ -3,6 +3,7 @@ package functional.tests.core.gestures;
 import functional.tests.core.appium.Client;
 import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
+import functional.tests.core.device.android.AndroidFastPath;
 import functional.tests.core.element.UIElement;
 import functional.tests.core.enums.PlatformType;
 import functional.tests.core.enums.Position;
@@ -178,13 +179,25 @@ public class Gestures {
      * @param duration
      */
     public void swipeInWindow(SwipeElementDirection direction, int duration, int waitAfter) {
+        this.swipeInWindow(direction, duration, waitAfter, false);
+    }
+
+    /**
+     * Swipe in window.
+     *
+     * @param direction       Direction.
+     * @param duration        Duration in milliseconds.
+     * @param waitAfter       Wait after swipe in milliseconds.
+     * @param androidFastPath If true, swipe with adb input on Android (see AndroidFastPath), Appium is used as fallback.
+     */
+    public void swipeInWindow(SwipeElementDirection direction, int duration, int waitAfter, boolean androidFastPath) {
         LOGGER_BASE.debug("Swipe " + direction.toString());
         Rectangle windowRectangle = this.getWindowRectangle();
 
         windowRectangle.height = (int) (windowRectangle.height - windowRectangle.height * 0.15D);
         //TODO(dtopuzov): According direction calculate x and y
 
-        this.swipeInRectangle(direction, windowRectangle, duration, waitAfter);
+        this.swipeInRectangle(direction, windowRectangle, duration, waitAfter, androidFastPath);
     }
 
     /**
@@ -194,6 +207,19 @@ public class Gestures {
      * @param duration
      */
     public void swipeInRectangle(SwipeElementDirection direction, Rectangle rectangle, int duration, int waitAfter) {
+        this.swipeInRectangle(direction, rectangle, duration, waitAfter, false);
+    }
+
+    /**
+     * Swipe in rectangle.
+     *
+     * @param direction       Direction.
+     * @param rectangle       Rectangle.
+     * @param duration        Duration in milliseconds.
+     * @param waitAfter       Wait after swipe in milliseconds.
+     * @param androidFastPath If true, swipe with adb input on Android (see AndroidFastPath), Appium is used as fallback.
+     */
+    public void swipeInRectangle(SwipeElementDirection direction, Rectangle rectangle, int duration, int waitAfter, boolean androidFastPath) {
         LOGGER_BASE.debug("Swipe " + direction.toString());
 
         int initialX = 0;
@@ -226,7 +252,16 @@ public class Gestures {
             finalX = rectangle.width;
         }
 
-        Gestures.swipe(duration, Settings.DEFAULT_TAP_DURATION * 2, initialX, initialY, finalX, finalY, this.context);
+        AndroidFastPath fastPath = androidFastPath ? this.context.getAndroidFastPath() : null;
+        if (fastPath != null && fastPath.swipe(initialX, initialY, finalX, finalY, duration)) {
+            Wait.sleep(Settings.DEFAULT_TAP_DURATION * 2);
+        } else {
+            long startTime = System.currentTimeMillis();
+            Gestures.swipe(duration, Settings.DEFAULT_TAP_DURATION * 2, initialX, initialY, finalX, finalY, this.context);
+            if (fastPath != null) {
+                fastPath.record("appium swipe", System.currentTimeMillis() - startTime);
+            }
+        }
         if (waitAfter > 0) {
             Wait.sleep(waitAfter);
         }
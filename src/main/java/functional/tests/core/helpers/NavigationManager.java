@@ -298,6 +298,7 @@ public class NavigationManager {
      */
     public void navigateForward() {
         this.increaseNavigationLevel();
+        this.context.pageChanged();
         NavigationHelper.navigateForward(this.context);
     }
 
@@ -307,6 +308,7 @@ public class NavigationManager {
     public void updatePagesOnNavigateBack() {
         this.removeCurrentPage();
         this.decreaseNavigationLevel();
+        this.context.pageChanged();
     }
 
     /**
@@ -337,5 +339,6 @@ public class NavigationManager {
         this.increaseNavigationLevel();
         this.pages.put(this.currentPage, this.navigationLevel);
         this.usedPages.add(this.currentPage);
+        this.context.pageChanged();
     }
 }
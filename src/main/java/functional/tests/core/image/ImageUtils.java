@@ -4,6 +4,7 @@ import functional.tests.core.appium.Client;
 import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
 import functional.tests.core.element.UIElement;
+import functional.tests.core.enums.ImageVerificationType;
 import functional.tests.core.exceptions.AppiumException;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
@@ -13,8 +14,12 @@ import org.openqa.selenium.Point;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Image utils.
@@ -22,6 +27,8 @@ import java.io.IOException;
 public class ImageUtils {
 
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("ImageUtils");
+    private static final long MAX_PREFETCH_BYTES = 256 * 1024 * 1024;
+    private static final Map<String, byte[]> PREFETCHED_IMAGES = new ConcurrentHashMap<>();
     private Client client;
     private Settings settings;
     private Context context;
@@ -39,7 +46,7 @@ public class ImageUtils {
      * @param context
      */
     public ImageUtils(Context context) {
-        this.context = TestContextSetupManager.getTestSetupManager().context;
+        this.context = context;
         this.client = this.context.client;
         this.settings = this.context.settings;
     }
@@ -54,6 +61,10 @@ public class ImageUtils {
         File file = new File(filePath);
         LOGGER_BASE.debug("Read expected image from: " + file.getAbsolutePath());
         try {
+            byte[] prefetched = PREFETCHED_IMAGES.get(getPrefetchKey(file));
+            if (prefetched != null) {
+                return ImageIO.read(new ByteArrayInputStream(prefetched));
+            }
             return ImageIO.read(file);
         } catch (IOException e) {
             LOGGER_BASE.debug("Failed to read image: " + filePath);
@@ -61,6 +72,49 @@ public class ImageUtils {
         }
     }
 
+    /**
+     * Read content of expected images of app under test in memory.
+     * Images in STORAGE are often on network share, prefetch allows reading them in parallel with device boot.
+     * Prefetched content is used only if image is not modified after prefetch.
+     *
+     * @return Number of prefetched images.
+     */
+    public int prefetchExpectedImages() {
+        if (this.settings.imageVerificationType == ImageVerificationType.Skip) {
+            return 0;
+        }
+
+        File folder = new File(this.settings.screenshotResDir + File.separator
+                + this.settings.testAppImageFolder + File.separator + this.settings.deviceName);
+        File[] images = folder.listFiles();
+        if (images == null) {
+            LOGGER_BASE.debug("No expected images to prefetch at: " + folder.getAbsolutePath());
+            return 0;
+        }
+
+        int count = 0;
+        long totalBytes = 0;
+        for (File image : images) {
+            if (!image.isFile() || !image.getName().toLowerCase().endsWith(".png")) {
+                continue;
+            }
+            totalBytes += image.length();
+            if (totalBytes > MAX_PREFETCH_BYTES) {
+                LOGGER_BASE.info("Prefetch limit reached. Remaining images will be read on demand.");
+                break;
+            }
+            try {
+                PREFETCHED_IMAGES.put(getPrefetchKey(image), Files.readAllBytes(image.toPath()));
+                count++;
+            } catch (IOException e) {
+                LOGGER_BASE.debug("Failed to prefetch image: " + image.getAbsolutePath());
+            }
+        }
+
+        LOGGER_BASE.info("Prefetched " + count + " expected images from: " + folder.getAbsolutePath());
+        return count;
+    }
+
     /**
      * Save buffered image.
      *
@@ -188,4 +242,14 @@ public class ImageUtils {
         LOGGER_BASE.debug("Image full name: " + imageFullName);
         return imageFullName;
     }
+
+    /**
+     * Get key of prefetched image (path, size and modification time).
+     *
+     * @param file Image file.
+     * @return Key of prefetched image.
+     */
+    private static String getPrefetchKey(File file) {
+        return file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+    }
 }
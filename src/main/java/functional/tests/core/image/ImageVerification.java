@@ -7,6 +7,7 @@ import functional.tests.core.enums.ImageVerificationType;
 import functional.tests.core.enums.PlatformType;
 import functional.tests.core.exceptions.ImageVerificationException;
 import functional.tests.core.find.Wait;
+import functional.tests.core.find.WaitBudget;
 import functional.tests.core.log.Log;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
@@ -36,10 +37,19 @@ public class ImageVerification {
     private Settings settings;
 
     /**
-     * TODO(): Add docs.
+     * Init image verification with context of current thread.
      */
     public ImageVerification() {
-        this.context = TestContextSetupManager.getTestSetupManager().context;
+        this(TestContextSetupManager.getTestSetupManager().context);
+    }
+
+    /**
+     * Init image verification.
+     *
+     * @param context Tests context.
+     */
+    public ImageVerification(Context context) {
+        this.context = context;
         this.settings = this.context.settings;
         this.imageUtils = this.context.imageUtils;
         this.verificationType = this.context.settings.imageVerificationType;
@@ -302,7 +312,8 @@ public class ImageVerification {
         } else {
             ImageVerificationResult result = null;
             long startTime = System.currentTimeMillis();
-            while ((System.currentTimeMillis() - startTime) < timeOut * 1000) {
+            long deadline = WaitBudget.clamp(startTime + timeOut * 1000L);
+            while (System.currentTimeMillis() < deadline) {
                 result = this.compareImages(actualImage.call(this.imageUtils), expectedImage, ignoreHeader);
                 if ((result.diffPixels > pixelTolerance) || (result.diffPercent > percentTolerance)) {
                     if (this.settings.logImageVerificationStatus) {
@@ -321,6 +332,7 @@ public class ImageVerification {
             if (!areImagesEqual) {
                 log.logImageVerificationResult(result, imageName);
             }
+            WaitBudget.record("Image verification of " + imageName, startTime, areImagesEqual);
         }
 
         return areImagesEqual;
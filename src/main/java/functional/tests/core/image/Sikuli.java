@@ -5,6 +5,7 @@ import functional.tests.core.basetest.Context;
 import functional.tests.core.basetest.TestContextSetupManager;
 import functional.tests.core.element.UIRectangle;
 import functional.tests.core.enums.PlatformType;
+import functional.tests.core.find.Wait;
 import org.sikuli.basics.Settings;
 import org.sikuli.script.Finder;
 import org.sikuli.script.Image;
@@ -30,7 +31,17 @@ public class Sikuli {
      * @param appName
      */
     public Sikuli(String appName) {
-        this.context = TestContextSetupManager.getTestSetupManager().context;
+        this(appName, TestContextSetupManager.getTestSetupManager().context);
+    }
+
+    /**
+     * Init Sikuli image processing.
+     *
+     * @param appName Name of app under test.
+     * @param context Tests context.
+     */
+    public Sikuli(String appName, Context context) {
+        this.context = context;
         this.appName = appName;
         this.client = this.context.client;
         this.imageUtils = this.context.imageUtils;
@@ -53,7 +64,7 @@ public class Sikuli {
 
         Rectangle rectangle = this.getRectangle(point, screenBufferImage.getWidth());
 
-        return new UIRectangle(rectangle);
+        return new UIRectangle(rectangle, this.context);
     }
 
     /**
@@ -76,7 +87,7 @@ public class Sikuli {
 
             Rectangle rectangle = this.getRectangle(point, screenBufferImage.getWidth());
 
-            rectangles.add(new UIRectangle(rectangle));
+            rectangles.add(new UIRectangle(rectangle, this.context));
         }
 
         UIRectangle[] rectanglesArray = new UIRectangle[rectangles.size()];
@@ -105,7 +116,7 @@ public class Sikuli {
         }
 
         while (searchedImageMatch == null && timeoutInSeconds > 0) {
-            this.client.setWait(1000);
+            Wait.sleep(1000);
             timeoutInSeconds -= 1000;
             screenBufferImage = this.imageUtils.getScreen();
             finder = this.getFinder(screenBufferImage, imageName, (float) similarity);
@@ -135,7 +146,7 @@ public class Sikuli {
         Point point = searchedImageMatch.getCenter().getPoint();
         Rectangle rectangle = this.getRectangle(point, mainImage.getSize().width);
 
-        return new UIRectangle(rectangle);
+        return new UIRectangle(rectangle, this.context);
     }
 
     /**
@@ -93,6 +93,16 @@ public class LoggerBase {
         return this.logger.getLevel();
     }
 
+    /**
+     * Check if debug messages are logged (use it to skip building expensive messages).
+     *
+     * @return True if debug messages are logged.
+     */
+    public boolean isDebugEnabled() {
+        return this.logger.isDebugEnabled()
+                || LoggerBase.LOG_LEVEL.equalsIgnoreCase("TRACE") || LoggerBase.LOG_LEVEL.equalsIgnoreCase("DEBUG");
+    }
+
     /**
      * TODO(): Add docs.
      *
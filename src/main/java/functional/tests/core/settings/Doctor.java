@@ -9,18 +9,32 @@ import functional.tests.core.exceptions.HostException;
 import functional.tests.core.exceptions.MobilePlatformException;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.utils.Aapt;
+import functional.tests.core.utils.HostEnvironment;
 import functional.tests.core.utils.OSUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Doctor verify system and settings.
  * Executed before tests and do not run them if problem is found.
+ * Checks are executed concurrently and all failures are reported at once.
  */
 public class Doctor {
 
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("Doctor");
+    private static final int CHECK_TIMEOUT = 60;
 
     /**
      * Verify system is ready to run tests and settings are valid.
@@ -29,27 +43,185 @@ public class Doctor {
      * @throws Exception When system is not ready to run tests or settings are invalid.
      */
     public static void check(Settings settings) throws Exception {
-        try {
-            verifyJava();
-            verifyAndroidHome(settings);
-            verifyAapt(settings);
-            verifyMobileOS(settings);
-            verifyDeviceType(settings);
-            verifyTestAppPath(settings);
-            verifyOSTypeAndMobilePlatform(settings);
-            verifyXcrun(settings);
-            verifyXConfig(settings);
-            verifyIdeviceinstaller(settings);
-            verifyAppium(settings);
-            verifyTestAppProperties(settings);
+        List<DoctorCheck> checks = runChecks(getChecks(settings), CHECK_TIMEOUT);
+
+        boolean passed = true;
+        LOGGER_BASE.info("Doctor report:");
+        for (DoctorCheck check : checks) {
+            String line = "[" + check.getStatus() + "] " + check.name + " (" + check.duration + " ms)";
+            if (check.passed) {
+                LOGGER_BASE.info(line);
+            } else {
+                LOGGER_BASE.error(line + ": " + check.error);
+                passed = false;
+            }
+        }
+
+        if (passed) {
             LOGGER_BASE.info("System and settings are OK.");
-        } catch (Exception e) {
-            LOGGER_BASE.error("System and settings are NOT OK.");
-            LOGGER_BASE.fatal(e.getMessage());
+        } else {
+            LOGGER_BASE.fatal("System and settings are NOT OK.");
             System.exit(-1);
         }
     }
 
+    /**
+     * Run checks concurrently.
+     * Passed checks are cached (if check is cacheable) and skipped on next runs while inputs are not changed.
+     *
+     * @param checks  Checks.
+     * @param timeOut Timeout for all checks in seconds (check that is not completed in timeout fails).
+     * @return Checks with results.
+     */
+    public static List<DoctorCheck> runChecks(List<DoctorCheck> checks, int timeOut) {
+        ExecutorService executor = Executors.newFixedThreadPool(checks.size());
+        try {
+            Map<DoctorCheck, Future<?>> futures = new LinkedHashMap<>();
+            for (final DoctorCheck check : checks) {
+                if (check.cacheKey != null && HostEnvironment.isValid(check.cacheKey, check.cacheDependency)) {
+                    check.passed = true;
+                    check.cached = true;
+                    continue;
+                }
+
+                futures.put(check, executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        long startTime = System.currentTimeMillis();
+                        try {
+                            check.check.call();
+                        } finally {
+                            check.duration = System.currentTimeMillis() - startTime;
+                        }
+                        return null;
+                    }
+                }));
+            }
+
+            long deadline = System.currentTimeMillis() + timeOut * 1000L;
+            for (Map.Entry<DoctorCheck, Future<?>> entry : futures.entrySet()) {
+                DoctorCheck check = entry.getKey();
+                try {
+                    entry.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                    check.passed = true;
+                    if (check.cacheKey != null) {
+                        HostEnvironment.put(check.cacheKey, check.cacheDependency, "OK");
+                    }
+                } catch (ExecutionException e) {
+                    check.error = e.getCause().getMessage();
+                } catch (TimeoutException e) {
+                    entry.getValue().cancel(true);
+                    check.duration = timeOut * 1000L;
+                    check.error = "Not completed in " + timeOut + " seconds.";
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    check.error = "Interrupted.";
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return checks;
+    }
+
+    /**
+     * Get all checks for current settings.
+     *
+     * @param settings Current settings.
+     * @return Checks.
+     */
+    protected static List<DoctorCheck> getChecks(final Settings settings) {
+        List<DoctorCheck> checks = new ArrayList<>();
+        checks.add(new DoctorCheck("Java", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyJava();
+                return null;
+            }
+        }));
+        checks.add(new DoctorCheck("ANDROID_HOME", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyAndroidHome(settings);
+                return null;
+            }
+        }));
+        checks.add(new DoctorCheck("Aapt", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyAapt(settings);
+                return null;
+            }
+        }, String.valueOf(settings.platform), System.getenv("ANDROID_HOME") + File.separator + "build-tools"));
+        checks.add(new DoctorCheck("Mobile OS", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyMobileOS(settings);
+                return null;
+            }
+        }));
+        checks.add(new DoctorCheck("Device type", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyDeviceType(settings);
+                return null;
+            }
+        }));
+        checks.add(new DoctorCheck("Test app", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyTestAppPath(settings);
+                return null;
+            }
+        }));
+        checks.add(new DoctorCheck("Host OS", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyOSTypeAndMobilePlatform(settings);
+                return null;
+            }
+        }));
+        checks.add(new DoctorCheck("Xcrun", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyXcrun(settings);
+                return null;
+            }
+        }, String.valueOf(settings.platform), "/usr/bin/xcrun"));
+        checks.add(new DoctorCheck("XConfig", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyXConfig(settings);
+                return null;
+            }
+        }));
+        // Check is cached only if ideviceinstaller is found in PATH (it is needed only for iOS physical devices).
+        String ideviceinstaller = settings.deviceType == DeviceType.iOS ? HostEnvironment.getIdeviceinstallerPath() : "";
+        checks.add(new DoctorCheck("Ideviceinstaller", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyIdeviceinstaller(settings);
+                return null;
+            }
+        }, ideviceinstaller.isEmpty() ? null : settings.deviceType + " " + ideviceinstaller, ideviceinstaller));
+        checks.add(new DoctorCheck("Appium", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyAppium(settings);
+                return null;
+            }
+        }, settings.appiumVersion, HostEnvironment.getAppiumPath()));
+        checks.add(new DoctorCheck("Test app properties", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                verifyTestAppProperties(settings);
+                return null;
+            }
+        }));
+        return checks;
+    }
+
     /**
      * Verify host OS has Java 1.8+.
      *
@@ -166,7 +338,7 @@ public class Doctor {
      */
     protected static void verifyXcrun(Settings settings) throws Exception {
         if (settings.platform == PlatformType.iOS) {
-            String output = OSUtils.runProcess("xcrun --version");
+            String output = HostEnvironment.getXcrunVersion();
             if (!output.contains("xcrun version")) {
                 String error = "xcrun is not available. Please install it. Error: " + output;
                 throw new Exception(error);
@@ -198,7 +370,7 @@ public class Doctor {
      */
     private static void verifyAppium(Settings settings) throws AppiumException {
         String message;
-        String appiumVersion = OSUtils.runProcess("appium -v ").trim();
+        String appiumVersion = HostEnvironment.getAppiumVersion();
         if (appiumVersion.equals("") || appiumVersion.contains("not installed")) {
             message = "Appium version " +
                     settings.appiumVersion + " is NOT installed! " +
@@ -0,0 +1,57 @@
+package functional.tests.core.settings;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Single Doctor check and its result.
+ */
+public class DoctorCheck {
+
+    public String name;
+    public Callable<Void> check;
+    public String cacheKey;
+    public String cacheDependency;
+
+    public boolean passed;
+    public boolean cached;
+    public long duration;
+    public String error;
+
+    /**
+     * Init check that is executed on each run.
+     *
+     * @param name  Name of check.
+     * @param check Check (throws exception when check fails).
+     */
+    public DoctorCheck(String name, Callable<Void> check) {
+        this(name, check, null, null);
+    }
+
+    /**
+     * Init check which result is cached between runs.
+     * Passed check is not executed again while cache key (inputs of check) and dependency file are not changed.
+     *
+     * @param name            Name of check.
+     * @param check           Check (throws exception when check fails).
+     * @param cacheKey        Inputs of check (for example expected version), null if check should not be cached.
+     * @param cacheDependency Path to file or folder check depends on (for example tool binary).
+     */
+    public DoctorCheck(String name, Callable<Void> check, String cacheKey, String cacheDependency) {
+        this.name = name;
+        this.check = check;
+        this.cacheKey = cacheKey == null ? null : "doctor." + name + "." + cacheKey;
+        this.cacheDependency = cacheDependency;
+    }
+
+    /**
+     * Get status of check for report.
+     *
+     * @return Status.
+     */
+    public String getStatus() {
+        if (!this.passed) {
+            return "FAILED";
+        }
+        return this.cached ? "CACHED" : "OK";
+    }
+}
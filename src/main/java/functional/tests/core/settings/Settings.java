@@ -9,6 +9,8 @@ import functional.tests.core.enums.PlatformType;
 import functional.tests.core.exceptions.HostException;
 import functional.tests.core.log.LoggerBase;
 import functional.tests.core.utils.Aapt;
+import functional.tests.core.utils.ApkInfo;
+import functional.tests.core.utils.ApkParser;
 import functional.tests.core.utils.Archive;
 import functional.tests.core.utils.FileSystem;
 import functional.tests.core.utils.OSUtils;
@@ -32,21 +34,23 @@ public class Settings {
 
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("Settings");
 
-    private static final String APP_CONFIG_PATH = System.getProperty("appConfig");
     private static final String STORAGE_ENVIRONMENT_VARIABLE = "STORAGE";
     private static final String USER_DIR = System.getProperty("user.dir");
 
-    private Aapt aapt;
+    private ApkInfo apkInfo;
     private String baseOutputDir;
     private Properties properties;
 
     public static final String BASE_RESOURCE_DIR = USER_DIR + File.separator + "resources";
     public static final String BASE_TEST_APP_DIR = USER_DIR + File.separator + "testapp";
     public static final String BASE_TEST_DATA_DIR = BASE_RESOURCE_DIR + File.separator + "testdata";
+    public static final String FRAMEWORK_HOME_DIR = System.getProperty("user.home") + File.separator + ".functional-tests";
     public static final int DEFAULT_TAP_DURATION = 250;
 
     public static OSType os;
 
+    public String appConfig;
+    public boolean parallel;
     public String appiumLogFile;
     public String baseLogDir;
     public String consoleLogDir;
@@ -72,6 +76,15 @@ public class Settings {
     public String automationName;
     public String testAppImageFolder;
     public String appiumLogLevel;
+    public boolean appiumServerDaemon;
+    public int appiumServerIdleTimeout;
+    public boolean reuseSession;
+    public boolean reuseSessionResetApp;
+    public boolean standbyServer;
+    public int driverHeartbeat;
+    public int waitPollInterval;
+    public double waitPollBackoff;
+    public int testTimeBudget;
     public boolean reuseDevice;
     public ScreenOrientation orientation;
     public PlatformType platform;
@@ -83,10 +96,27 @@ public class Settings {
     public boolean restartRealDevice;
 
     /**
-     * Init settings.
+     * Init settings from config specified via appConfig VM option.
      */
     public Settings() {
+        this(System.getProperty("appConfig"), false);
+    }
+
+    /**
+     * Init settings from config file.
+     *
+     * @param appConfig Path to config file (relative to user.dir).
+     * @param parallel  True if tests are executed on multiple devices in parallel.
+     *                  In this case logs and screenshots are stored in sub folder named after config file.
+     */
+    public Settings(String appConfig, boolean parallel) {
+        this.appConfig = appConfig;
+        this.parallel = parallel;
         this.baseOutputDir = USER_DIR + File.separator + "target" + File.separator + "surefire-reports";
+        if (parallel) {
+            String configName = new File(appConfig).getName().replace(".properties", "");
+            this.baseOutputDir = this.baseOutputDir + File.separator + configName;
+        }
 
         // Read properties file
         try {
@@ -120,9 +150,6 @@ public class Settings {
      * @return Android settings.
      */
     public SettingsAndroid initSettingsAndroid() {
-        // Aapt need so know OS Type.
-        this.aapt = new Aapt(this);
-
         this.android = new SettingsAndroid();
         LOGGER_BASE.separatorAndroid();
 
@@ -138,9 +165,18 @@ public class Settings {
         this.testAppImageFolder = this.testAppName.substring(0, testAppName.indexOf(".")).toLowerCase();
         LOGGER_BASE.info("TestApp Images Folder: " + this.testAppImageFolder);
 
-        this.packageId = this.aapt.getPackage();
+        this.apkInfo = this.getApkInfo();
+
+        this.packageId = this.apkInfo.packageId;
         LOGGER_BASE.info("TestApp Package Id: " + this.packageId);
 
+        this.android.versionCode = this.apkInfo.versionCode;
+        LOGGER_BASE.info("TestApp Version Code: " + this.android.versionCode);
+
+        this.android.minSdkVersion = this.apkInfo.minSdkVersion;
+        this.android.targetSdkVersion = this.apkInfo.targetSdkVersion;
+        LOGGER_BASE.info("TestApp Min/Target SDK: " + this.android.minSdkVersion + "/" + this.android.targetSdkVersion);
+
         this.android.defaultActivity = this.getDefaultActivity();
         LOGGER_BASE.info("Default Activity: " + this.android.defaultActivity);
 
@@ -150,7 +186,7 @@ public class Settings {
         this.android.appWaitPackage = this.getAppWaitPackage();
         LOGGER_BASE.info("App Wait Package: " + this.android.appWaitPackage);
 
-        this.testAppFriendlyName = this.aapt.getApplicationLabel(this);
+        this.testAppFriendlyName = this.apkInfo.label;
         LOGGER_BASE.info("TestApp Friendly Name: " + this.testAppFriendlyName);
 
         if (this.deviceType == DeviceType.Emulator) {
@@ -159,6 +195,10 @@ public class Settings {
 
             this.android.emulatorCreateOptions = this.properties.getProperty("emulatorCreateOptions");
             LOGGER_BASE.info("Emulator Create Options: " + this.android.emulatorCreateOptions);
+
+            this.android.emulatorSnapshot = this.properties.getProperty("emulatorSnapshot");
+            LOGGER_BASE.info("Emulator Snapshot: "
+                    + (this.android.emulatorSnapshot != null ? this.android.emulatorSnapshot : "not set"));
         }
         this.android.memoryMaxUsageLimit = this.getMemoryMaxUsageLimit();
         LOGGER_BASE.info("Memory Usage Max Limit: "
@@ -258,6 +298,12 @@ public class Settings {
         this.platformVersion = Double.parseDouble(this.properties.getProperty("platformVersion").trim());
         this.testAppName = this.properties.getProperty("testAppName");
         this.appiumLogLevel = this.properties.getProperty("appiumLogLevel", "warn");
+        this.appiumServerDaemon = this.propertyToBoolean("appiumServerDaemon", false);
+        this.appiumServerIdleTimeout = this.convertPropertyToInt("appiumServerIdleTimeout", 30);
+        this.reuseSession = this.propertyToBoolean("reuseSession", false);
+        this.reuseSessionResetApp = this.propertyToBoolean("reuseSessionResetApp", true);
+        this.standbyServer = this.propertyToBoolean("standbyServer", false);
+        this.driverHeartbeat = this.convertPropertyToInt("driverHeartbeat", 5);
         this.logImageVerificationStatus = this.properties.getProperty("logImageVerificationStatus") != null ?
                 new Boolean(this.properties.getProperty("logImageVerificationStatus")) : false;
 
@@ -295,6 +341,13 @@ public class Settings {
         this.defaultTimeout = this.convertPropertyToInt("defaultTimeout", 30);
         this.shortTimeout = this.defaultTimeout / 5;
 
+        // Poll interval of find and wait (see WaitEngine).
+        this.waitPollInterval = this.convertPropertyToInt("waitPollInterval", 200);
+        this.waitPollBackoff = Double.parseDouble(this.properties.getProperty("waitPollBackoff", "1.5").trim());
+
+        // Time budget of each test (see WaitBudget), 0 means no budget.
+        this.testTimeBudget = this.convertPropertyToInt("testTimeBudget", 0);
+
         // If deviceBootTimeout is not specified set it equal to defaultTimeout
         this.deviceBootTimeout = this.convertPropertyToInt("deviceBootTimeout", 300);
 
@@ -310,6 +363,8 @@ public class Settings {
         LOGGER_BASE.info("Take Screenshot After Test: " + this.takeScreenShotAfterTest);
         LOGGER_BASE.info("Image Verification Type: " + this.imageVerificationType);
         LOGGER_BASE.info("Default Timeout: " + this.defaultTimeout);
+        LOGGER_BASE.info("Wait Poll Interval: " + this.waitPollInterval + " ms (backoff " + this.waitPollBackoff + ")");
+        LOGGER_BASE.info("Test Time Budget: " + this.testTimeBudget);
         LOGGER_BASE.info("Device Boot Time: " + this.deviceBootTimeout);
         LOGGER_BASE.info("Base TestApp Path: " + BASE_TEST_APP_DIR);
         LOGGER_BASE.info("TestApp Name: " + this.testAppName);
@@ -322,6 +377,10 @@ public class Settings {
         LOGGER_BASE.info("TestData Base Folder: " + BASE_TEST_DATA_DIR);
         LOGGER_BASE.info("Appium Log File: " + this.appiumLogFile);
         LOGGER_BASE.info("Appium Log Level: " + this.appiumLogLevel);
+        LOGGER_BASE.info("Appium Server Daemon: " + this.appiumServerDaemon);
+        LOGGER_BASE.info("Reuse Appium Session: " + this.reuseSession);
+        LOGGER_BASE.info("Reset App In Reused Session: " + this.reuseSessionResetApp);
+        LOGGER_BASE.info("Standby Appium Server: " + this.standbyServer);
         LOGGER_BASE.info("Debug: " + this.debug);
         LOGGER_BASE.info("ReuseDevice: " + this.reuseDevice);
         LOGGER_BASE.info("Log image verification status: " + this.logImageVerificationStatus);
@@ -366,8 +425,43 @@ public class Settings {
      * @return default activity.
      */
     private String getDefaultActivity() {
-        String appDefaultActivityString = this.aapt.getLaunchableActivity(this);
-        return appDefaultActivityString;
+        return this.apkInfo.launchableActivity;
+    }
+
+    /**
+     * Read package id, launchable activity, label and versions from apk of app under test.
+     * Apk is parsed in-process, aapt is used only if some of the values can not be parsed.
+     *
+     * @return Apk info.
+     */
+    private ApkInfo getApkInfo() {
+        String apkPath = BASE_TEST_APP_DIR + File.separator + this.testAppName;
+        ApkInfo apkInfo;
+        try {
+            apkInfo = ApkParser.parse(apkPath);
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to parse " + apkPath + ": " + e.getMessage());
+            apkInfo = new ApkInfo();
+        }
+
+        if (apkInfo.packageId == null || apkInfo.launchableActivity == null || apkInfo.label == null) {
+            LOGGER_BASE.info("Failed to read some of the values from apk. Use aapt.");
+            // Aapt need so know OS Type.
+            Aapt aapt = new Aapt(this);
+            if (apkInfo.packageId == null) {
+                apkInfo.packageId = aapt.getPackage();
+            }
+            if (apkInfo.launchableActivity == null) {
+                apkInfo.launchableActivity = aapt.getLaunchableActivity(this);
+            }
+            if (apkInfo.label == null) {
+                apkInfo.label = aapt.getApplicationLabel(this);
+            }
+            if (apkInfo.versionCode == null) {
+                apkInfo.versionCode = aapt.getVersionCode();
+            }
+        }
+        return apkInfo;
     }
 
     /**
@@ -575,7 +669,7 @@ public class Settings {
      * @throws Exception When properties file is not found.
      */
     private Properties readProperties() throws Exception {
-        String appConfigFile = USER_DIR + File.separator + APP_CONFIG_PATH;
+        String appConfigFile = USER_DIR + File.separator + this.appConfig;
         try {
             InputStream input = new FileInputStream(appConfigFile);
             Properties prop = new Properties();
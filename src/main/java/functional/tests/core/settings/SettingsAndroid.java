@@ -8,8 +8,12 @@ public class SettingsAndroid {
     public String appWaitActivity;
     public String appWaitPackage;
     public String defaultActivity;
+    public String versionCode;
+    public String minSdkVersion;
+    public String targetSdkVersion;
     public String emulatorOptions;
     public String emulatorCreateOptions;
+    public String emulatorSnapshot;
     public boolean isRealDevice;
     public int memoryMaxUsageLimit;
     public int appLaunchTimeLimit;
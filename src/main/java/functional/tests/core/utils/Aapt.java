@@ -5,6 +5,7 @@ import functional.tests.core.log.LoggerBase;
 import functional.tests.core.settings.Settings;
 
 import java.io.File;
+import java.util.concurrent.Callable;
 
 /**
  * Android Asset Packaging Tool.
@@ -27,10 +28,28 @@ public class Aapt {
 
     /**
      * Locate aapt on current host machine.
+     * Path is cached between runs while build-tools folder is not modified (see HostEnvironment).
      *
      * @return aapt path.
      */
     private String getAaptPath() {
+        final File buildTools = new File(System.getenv("ANDROID_HOME") + File.separator + "build-tools");
+        String aaptPath = HostEnvironment.get("aapt.path", buildTools.getAbsolutePath(), new Callable<String>() {
+            @Override
+            public String call() {
+                return Aapt.this.findAaptPath(buildTools);
+            }
+        });
+        return aaptPath.isEmpty() ? null : aaptPath;
+    }
+
+    /**
+     * Search for aapt in build-tools folder.
+     *
+     * @param buildTools Android build-tools folder.
+     * @return aapt path.
+     */
+    private String findAaptPath(File buildTools) {
         String aaptPath;
 
         String aaptExecutableName = "aapt";
@@ -38,8 +57,7 @@ public class Aapt {
             aaptExecutableName += ".exe";
         }
 
-        File androidHome = new File(System.getenv("ANDROID_HOME") + File.separator + "build-tools");
-        File aaptExecutablePath = OSUtils.find(androidHome, aaptExecutableName);
+        File aaptExecutablePath = OSUtils.find(buildTools, aaptExecutableName);
         if (aaptExecutablePath == null) {
             aaptPath = null;
         } else {
@@ -82,6 +100,26 @@ public class Aapt {
         return this.runAaptCommand("package:");
     }
 
+    /**
+     * Get versionCode from apk file of app under test.
+     *
+     * @return Version code (null if not available).
+     */
+    public String getVersionCode() {
+        String command = this.aaptPath +
+                " dump badging " + this.settings.BASE_TEST_APP_DIR +
+                File.separator + this.settings.testAppName + " | grep package:";
+        String result = OSUtils.runProcess(command);
+
+        String key = "versionCode='";
+        if (result.contains(key)) {
+            String value = result.substring(result.indexOf(key) + key.length());
+            return value.substring(0, value.indexOf("'"));
+        } else {
+            return null;
+        }
+    }
+
     /**
      * Get default activity from apk file of app under test.
      *
@@ -0,0 +1,21 @@
+package functional.tests.core.utils;
+
+/**
+ * Information about apk file read from its AndroidManifest.xml and resources.arsc.
+ * Values are null if not available in the apk.
+ */
+public class ApkInfo {
+
+    public String packageId;
+    public String launchableActivity;
+    public String label;
+    public String versionCode;
+    public String minSdkVersion;
+    public String targetSdkVersion;
+
+    /**
+     * Init apk info.
+     */
+    public ApkInfo() {
+    }
+}
@@ -0,0 +1,463 @@
+package functional.tests.core.utils;
+
+import functional.tests.core.log.LoggerBase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * In-process parser of apk files.
+ * Reads binary AndroidManifest.xml and resources.arsc (resolves references like @string/app_name)
+ * in single pass without starting aapt. Results are cached by SHA-256 of apk.
+ */
+public class ApkParser {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("ApkParser");
+    private static final Map<String, ApkInfo> CACHE = new ConcurrentHashMap<>();
+
+    private static final int RES_STRING_POOL_TYPE = 0x0001;
+    private static final int RES_TABLE_TYPE = 0x0002;
+    private static final int RES_XML_RESOURCE_MAP_TYPE = 0x0180;
+    private static final int RES_XML_START_ELEMENT_TYPE = 0x0102;
+    private static final int RES_XML_END_ELEMENT_TYPE = 0x0103;
+    private static final int RES_TABLE_PACKAGE_TYPE = 0x0200;
+    private static final int RES_TABLE_TYPE_TYPE = 0x0201;
+
+    private static final int TYPE_REFERENCE = 0x01;
+    private static final int TYPE_STRING = 0x03;
+    private static final int TYPE_INT_DEC = 0x10;
+    private static final int TYPE_INT_HEX = 0x11;
+    private static final int NO_INDEX = 0xFFFFFFFF;
+    private static final int UTF8_FLAG = 1 << 8;
+
+    private static final int ENTRY_FLAG_COMPLEX = 0x0001;
+    private static final int ENTRY_FLAG_COMPACT = 0x0008;
+    private static final int TYPE_FLAG_SPARSE = 0x01;
+    private static final int TYPE_FLAG_OFFSET16 = 0x02;
+
+    private static final int ATTR_LABEL = 0x01010001;
+    private static final int ATTR_NAME = 0x01010003;
+    private static final int ATTR_MIN_SDK_VERSION = 0x0101020c;
+    private static final int ATTR_VERSION_CODE = 0x0101021b;
+    private static final int ATTR_TARGET_SDK_VERSION = 0x01010270;
+    private static final int MAX_REFERENCE_DEPTH = 5;
+
+    private ByteBuffer manifest;
+    private ByteBuffer resources;
+    private String[] strings;
+    private int[] resourceIds;
+
+    /**
+     * Init parser for manifest and resources of apk.
+     *
+     * @param manifest  Content of binary AndroidManifest.xml.
+     * @param resources Content of resources.arsc (null if apk has no resources).
+     */
+    private ApkParser(byte[] manifest, byte[] resources) {
+        this.manifest = ByteBuffer.wrap(manifest).order(ByteOrder.LITTLE_ENDIAN);
+        if (resources != null) {
+            this.resources = ByteBuffer.wrap(resources).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        this.strings = new String[0];
+        this.resourceIds = new int[0];
+    }
+
+    /**
+     * Get info about apk (cached by SHA-256 of apk).
+     *
+     * @param apkPath Path to apk file.
+     * @return Apk info.
+     * @throws IOException When apk can not be read or parsed.
+     */
+    public static ApkInfo parse(String apkPath) throws IOException {
+        String sha256 = FileSystem.getSha256(apkPath);
+        ApkInfo apkInfo = CACHE.get(sha256);
+        if (apkInfo == null) {
+            long startTime = System.currentTimeMillis();
+            try (ZipFile zipFile = new ZipFile(apkPath)) {
+                byte[] manifest = readEntry(zipFile, "AndroidManifest.xml");
+                if (manifest == null) {
+                    throw new IOException("AndroidManifest.xml not found in " + apkPath);
+                }
+                apkInfo = new ApkParser(manifest, readEntry(zipFile, "resources.arsc")).readManifest();
+            } catch (RuntimeException e) {
+                // Buffer under/overflow on malformed or unsupported binary format.
+                throw new IOException("Failed to parse " + apkPath + ": " + e);
+            }
+            LOGGER_BASE.debug("Parsed " + apkPath + " in " + (System.currentTimeMillis() - startTime) + " ms.");
+            CACHE.put(sha256, apkInfo);
+        }
+        return apkInfo;
+    }
+
+    /**
+     * Read zip entry.
+     *
+     * @param zipFile Zip file.
+     * @param name    Name of entry.
+     * @return Content of entry (null if entry does not exist).
+     * @throws IOException When fail to read entry.
+     */
+    private static byte[] readEntry(ZipFile zipFile, String name) throws IOException {
+        ZipEntry entry = zipFile.getEntry(name);
+        if (entry == null) {
+            return null;
+        }
+
+        try (InputStream input = zipFile.getInputStream(entry)) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(entry.getSize() > 0 ? (int) entry.getSize() : 8192);
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    /**
+     * Walk binary xml chunks of manifest and collect apk info.
+     *
+     * @return Apk info.
+     */
+    private ApkInfo readManifest() {
+        ApkInfo apkInfo = new ApkInfo();
+
+        String activity = null;
+        boolean isLauncherActivity = false;
+        boolean hasMainAction = false;
+        boolean hasLauncherCategory = false;
+
+        int position = this.manifest.getShort(2) & 0xFFFF;
+        while (position < this.manifest.limit()) {
+            int type = this.manifest.getShort(position) & 0xFFFF;
+            int size = this.manifest.getInt(position + 4);
+            if (size <= 0) {
+                break;
+            }
+
+            if (type == RES_STRING_POOL_TYPE) {
+                this.strings = readStringPool(this.manifest, position);
+            } else if (type == RES_XML_RESOURCE_MAP_TYPE) {
+                int headerSize = this.manifest.getShort(position + 2) & 0xFFFF;
+                this.resourceIds = new int[(size - headerSize) / 4];
+                for (int i = 0; i < this.resourceIds.length; i++) {
+                    this.resourceIds[i] = this.manifest.getInt(position + headerSize + i * 4);
+                }
+            } else if (type == RES_XML_START_ELEMENT_TYPE) {
+                String element = this.getString(this.manifest.getInt(position + 20));
+                if ("manifest".equals(element)) {
+                    apkInfo.packageId = this.getAttribute(position, "package", 0);
+                    apkInfo.versionCode = this.getAttribute(position, "versionCode", ATTR_VERSION_CODE);
+                } else if ("uses-sdk".equals(element)) {
+                    apkInfo.minSdkVersion = this.getAttribute(position, "minSdkVersion", ATTR_MIN_SDK_VERSION);
+                    apkInfo.targetSdkVersion = this.getAttribute(position, "targetSdkVersion", ATTR_TARGET_SDK_VERSION);
+                } else if ("application".equals(element)) {
+                    apkInfo.label = this.getAttribute(position, "label", ATTR_LABEL);
+                } else if ("activity".equals(element) || "activity-alias".equals(element)) {
+                    activity = this.getAttribute(position, "name", ATTR_NAME);
+                    isLauncherActivity = false;
+                } else if ("intent-filter".equals(element)) {
+                    hasMainAction = false;
+                    hasLauncherCategory = false;
+                } else if ("action".equals(element)) {
+                    hasMainAction |= "android.intent.action.MAIN".equals(this.getAttribute(position, "name", ATTR_NAME));
+                } else if ("category".equals(element)) {
+                    hasLauncherCategory |= "android.intent.category.LAUNCHER".equals(this.getAttribute(position, "name", ATTR_NAME));
+                }
+            } else if (type == RES_XML_END_ELEMENT_TYPE) {
+                String element = this.getString(this.manifest.getInt(position + 20));
+                if ("intent-filter".equals(element) && hasMainAction && hasLauncherCategory) {
+                    isLauncherActivity = true;
+                } else if (("activity".equals(element) || "activity-alias".equals(element)) && isLauncherActivity) {
+                    if (apkInfo.launchableActivity == null && activity != null) {
+                        apkInfo.launchableActivity = activity;
+                    }
+                    isLauncherActivity = false;
+                }
+            }
+
+            position += size;
+        }
+
+        // Activity names can be relative to package (like aapt, return full class name).
+        if (apkInfo.launchableActivity != null && apkInfo.packageId != null) {
+            if (apkInfo.launchableActivity.startsWith(".")) {
+                apkInfo.launchableActivity = apkInfo.packageId + apkInfo.launchableActivity;
+            } else if (!apkInfo.launchableActivity.contains(".")) {
+                apkInfo.launchableActivity = apkInfo.packageId + "." + apkInfo.launchableActivity;
+            }
+        }
+
+        return apkInfo;
+    }
+
+    /**
+     * Get value of attribute of xml element as string.
+     * Attribute is matched by resource id (if known) or by name.
+     *
+     * @param elementPosition Position of start element chunk.
+     * @param name            Name of attribute.
+     * @param resourceId      Resource id of android attribute (0 for attributes without namespace).
+     * @return Value (null if attribute does not exist or value can not be resolved).
+     */
+    private String getAttribute(int elementPosition, String name, int resourceId) {
+        int extPosition = elementPosition + 16;
+        int attributeStart = this.manifest.getShort(extPosition + 8) & 0xFFFF;
+        int attributeSize = this.manifest.getShort(extPosition + 10) & 0xFFFF;
+        int attributeCount = this.manifest.getShort(extPosition + 12) & 0xFFFF;
+
+        for (int i = 0; i < attributeCount; i++) {
+            int position = extPosition + attributeStart + i * attributeSize;
+            int nameIndex = this.manifest.getInt(position + 4);
+            boolean match;
+            if (resourceId != 0 && nameIndex >= 0 && nameIndex < this.resourceIds.length) {
+                match = this.resourceIds[nameIndex] == resourceId;
+            } else {
+                match = name.equals(this.getString(nameIndex));
+            }
+            if (!match) {
+                continue;
+            }
+
+            int rawValue = this.manifest.getInt(position + 8);
+            int dataType = this.manifest.get(position + 15) & 0xFF;
+            int data = this.manifest.getInt(position + 16);
+            if (rawValue != NO_INDEX) {
+                return this.getString(rawValue);
+            }
+            return this.getValue(dataType, data, 0);
+        }
+        return null;
+    }
+
+    /**
+     * Convert typed value to string.
+     *
+     * @param dataType Type of value.
+     * @param data     Data of value.
+     * @param depth    Depth of reference resolution.
+     * @return Value (null if type is not supported).
+     */
+    private String getValue(int dataType, int data, int depth) {
+        if (dataType == TYPE_INT_DEC || dataType == TYPE_INT_HEX) {
+            return String.valueOf(data);
+        } else if (dataType == TYPE_REFERENCE && depth < MAX_REFERENCE_DEPTH) {
+            return this.resolveReference(data, depth + 1);
+        }
+        return null;
+    }
+
+    /**
+     * Resolve reference to string resource from resources.arsc.
+     * Value from default configuration (no language and country) has priority.
+     *
+     * @param resourceId Resource id (0xPPTTEEEE).
+     * @param depth      Depth of reference resolution.
+     * @return Value (null if resource is not found).
+     */
+    private String resolveReference(int resourceId, int depth) {
+        if (this.resources == null || this.resources.getShort(0) != RES_TABLE_TYPE) {
+            return null;
+        }
+
+        int packageId = resourceId >>> 24;
+        int typeId = (resourceId >> 16) & 0xFF;
+        int entryIndex = resourceId & 0xFFFF;
+
+        String[] globalStrings = new String[0];
+        String candidate = null;
+        int position = this.resources.getShort(2) & 0xFFFF;
+        while (position < this.resources.limit()) {
+            int type = this.resources.getShort(position) & 0xFFFF;
+            int size = this.resources.getInt(position + 4);
+            if (size <= 0) {
+                break;
+            }
+
+            if (type == RES_STRING_POOL_TYPE) {
+                globalStrings = readStringPool(this.resources, position);
+            } else if (type == RES_TABLE_PACKAGE_TYPE && this.resources.getInt(position + 8) == packageId) {
+                int packageEnd = position + size;
+                int chunk = position + (this.resources.getShort(position + 2) & 0xFFFF);
+                while (chunk < packageEnd) {
+                    int chunkType = this.resources.getShort(chunk) & 0xFFFF;
+                    int chunkSize = this.resources.getInt(chunk + 4);
+                    if (chunkSize <= 0) {
+                        break;
+                    }
+
+                    if (chunkType == RES_TABLE_TYPE_TYPE && (this.resources.get(chunk + 8) & 0xFF) == typeId) {
+                        int entry = this.getEntryPosition(chunk, entryIndex);
+                        if (entry > -1) {
+                            String value = this.getEntryValue(entry, globalStrings, depth);
+                            boolean isDefaultConfig = this.resources.getInt(chunk + 20 + 8) == 0;
+                            if (value != null && isDefaultConfig) {
+                                return value;
+                            } else if (value != null && candidate == null) {
+                                candidate = value;
+                            }
+                        }
+                    }
+                    chunk += chunkSize;
+                }
+            }
+
+            position += size;
+        }
+
+        return candidate;
+    }
+
+    /**
+     * Get position of entry in type chunk.
+     *
+     * @param chunk      Position of type chunk.
+     * @param entryIndex Index of entry.
+     * @return Position of entry (-1 if entry is not defined in this configuration).
+     */
+    private int getEntryPosition(int chunk, int entryIndex) {
+        int flags = this.resources.get(chunk + 9) & 0xFF;
+        int entryCount = this.resources.getInt(chunk + 12);
+        int entriesStart = this.resources.getInt(chunk + 16);
+        int offsets = chunk + (this.resources.getShort(chunk + 2) & 0xFFFF);
+
+        int offset = -1;
+        if ((flags & TYPE_FLAG_SPARSE) != 0) {
+            for (int i = 0; i < entryCount; i++) {
+                if ((this.resources.getShort(offsets + i * 4) & 0xFFFF) == entryIndex) {
+                    offset = (this.resources.getShort(offsets + i * 4 + 2) & 0xFFFF) * 4;
+                    break;
+                }
+            }
+        } else if (entryIndex < entryCount) {
+            if ((flags & TYPE_FLAG_OFFSET16) != 0) {
+                int value = this.resources.getShort(offsets + entryIndex * 2) & 0xFFFF;
+                offset = value == 0xFFFF ? -1 : value * 4;
+            } else {
+                int value = this.resources.getInt(offsets + entryIndex * 4);
+                offset = value == NO_INDEX ? -1 : value;
+            }
+        }
+
+        return offset < 0 ? -1 : chunk + entriesStart + offset;
+    }
+
+    /**
+     * Get value of simple (not complex) resource entry.
+     *
+     * @param entry         Position of entry.
+     * @param globalStrings Global string pool of resource table.
+     * @param depth         Depth of reference resolution.
+     * @return Value (null if entry is complex or value type is not supported).
+     */
+    private String getEntryValue(int entry, String[] globalStrings, int depth) {
+        int flags = this.resources.getShort(entry + 2) & 0xFFFF;
+        int dataType;
+        int data;
+        if ((flags & ENTRY_FLAG_COMPACT) != 0) {
+            dataType = (flags >> 8) & 0xFF;
+            data = this.resources.getInt(entry + 4);
+        } else if ((flags & ENTRY_FLAG_COMPLEX) != 0) {
+            return null;
+        } else {
+            int value = entry + (this.resources.getShort(entry) & 0xFFFF);
+            dataType = this.resources.get(value + 3) & 0xFF;
+            data = this.resources.getInt(value + 4);
+        }
+
+        if (dataType == TYPE_STRING) {
+            return data >= 0 && data < globalStrings.length ? globalStrings[data] : null;
+        }
+        return this.getValue(dataType, data, depth);
+    }
+
+    /**
+     * Get string from string pool of manifest.
+     *
+     * @param index Index of string.
+     * @return String (null if index is out of range).
+     */
+    private String getString(int index) {
+        return index >= 0 && index < this.strings.length ? this.strings[index] : null;
+    }
+
+    /**
+     * Read string pool chunk.
+     *
+     * @param buffer   Buffer.
+     * @param position Position of string pool chunk.
+     * @return Strings.
+     */
+    private static String[] readStringPool(ByteBuffer buffer, int position) {
+        int stringCount = buffer.getInt(position + 8);
+        int flags = buffer.getInt(position + 16);
+        int stringsStart = buffer.getInt(position + 20);
+        int headerSize = buffer.getShort(position + 2) & 0xFFFF;
+        boolean isUtf8 = (flags & UTF8_FLAG) != 0;
+
+        String[] strings = new String[stringCount];
+        for (int i = 0; i < stringCount; i++) {
+            int offset = buffer.getInt(position + headerSize + i * 4);
+            int stringPosition = position + stringsStart + offset;
+            strings[i] = isUtf8 ? readUtf8(buffer, stringPosition) : readUtf16(buffer, stringPosition);
+        }
+        return strings;
+    }
+
+    /**
+     * Read UTF-8 string from string pool.
+     *
+     * @param buffer   Buffer.
+     * @param position Position of string.
+     * @return String.
+     */
+    private static String readUtf8(ByteBuffer buffer, int position) {
+        // Length in characters (skipped) followed by length in bytes, each 1 or 2 bytes.
+        position += (buffer.get(position) & 0x80) != 0 ? 2 : 1;
+        int length = buffer.get(position) & 0xFF;
+        if ((length & 0x80) != 0) {
+            length = ((length & 0x7F) << 8) | (buffer.get(position + 1) & 0xFF);
+            position += 2;
+        } else {
+            position += 1;
+        }
+
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+        }
+        return new String(bytes, Charset.forName("UTF-8"));
+    }
+
+    /**
+     * Read UTF-16 string from string pool.
+     *
+     * @param buffer   Buffer.
+     * @param position Position of string.
+     * @return String.
+     */
+    private static String readUtf16(ByteBuffer buffer, int position) {
+        int length = buffer.getShort(position) & 0xFFFF;
+        if ((length & 0x8000) != 0) {
+            length = ((length & 0x7FFF) << 16) | (buffer.getShort(position + 2) & 0xFFFF);
+            position += 4;
+        } else {
+            position += 2;
+        }
+
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = buffer.getChar(position + i * 2);
+        }
+        return new String(chars);
+    }
+}
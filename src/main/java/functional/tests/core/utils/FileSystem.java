@@ -5,10 +5,16 @@ import org.apache.commons.io.FileUtils;
 import org.testng.Assert;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utils for file system operations.
@@ -16,6 +22,7 @@ import java.nio.file.Paths;
 public class FileSystem {
 
     private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("FileSystem");
+    private static final Map<String, String> SHA256_CACHE = new ConcurrentHashMap<>();
 
     /**
      * Delete file path.
@@ -62,6 +69,17 @@ public class FileSystem {
         FileUtils.writeStringToFile(new File(filePath), text);
     }
 
+    /**
+     * Append content of String to file (file is created if it does not exist).
+     *
+     * @param filePath File path as String.
+     * @param text     Content to be appended in file.
+     * @throws IOException When fail to write in file.
+     */
+    public static void appendFile(String filePath, String text) throws IOException {
+        FileUtils.writeStringToFile(new File(filePath), text, Charset.defaultCharset(), true);
+    }
+
     /**
      * Check if path exists.
      *
@@ -88,6 +106,55 @@ public class FileSystem {
         }
     }
 
+    /**
+     * Get SHA-256 checksum of file.
+     * Checksum is cached per path, size and last modified time, so same file is read only once.
+     *
+     * @param path Path to file.
+     * @return SHA-256 checksum as lower case hex string.
+     * @throws IOException When fail to read file.
+     */
+    public static String getSha256(String path) throws IOException {
+        File file = new File(path);
+        String key = file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified();
+        String sha256 = SHA256_CACHE.get(key);
+        if (sha256 == null) {
+            sha256 = calculateSha256(path);
+            SHA256_CACHE.put(key, sha256);
+        }
+        return sha256;
+    }
+
+    /**
+     * Calculate SHA-256 checksum of file.
+     *
+     * @param path Path to file.
+     * @return SHA-256 checksum as lower case hex string.
+     * @throws IOException When fail to read file.
+     */
+    private static String calculateSha256(String path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream input = new FileInputStream(path)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
     /**
      * Get size of file.
      *
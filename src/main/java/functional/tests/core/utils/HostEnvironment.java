@@ -0,0 +1,236 @@
+package functional.tests.core.utils;
+
+import functional.tests.core.log.LoggerBase;
+import functional.tests.core.settings.Settings;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache of host environment facts (paths and versions of tools like appium, aapt and xcrun).
+ * Discovering them requires starting processes (some via login shell), which takes seconds on each run.
+ * Each value is stored in ~/.functional-tests/host-environment.properties together with last modified time
+ * of the file it depends on (tool binary or folder) and fingerprint of PATH and ANDROID_HOME.
+ * Value is reused while all of them are unchanged, otherwise it is discovered again.
+ */
+public class HostEnvironment {
+
+    private static final LoggerBase LOGGER_BASE = LoggerBase.getLogger("HostEnvironment");
+    private static final String VERSION = "1";
+    private static final String VERSION_KEY = "version";
+    private static final String DEFAULT_PATH = Settings.FRAMEWORK_HOME_DIR + File.separator + "host-environment.properties";
+
+    private static Properties cache;
+
+    /**
+     * Get path of appium executable (output of "which appium").
+     *
+     * @return Path of appium executable (empty string if appium is not found).
+     */
+    public static String getAppiumPath() {
+        return getPath("appium.path", new Callable<String>() {
+            @Override
+            public String call() {
+                return OSUtils.runProcess("which appium").trim();
+            }
+        });
+    }
+
+    /**
+     * Get path of ideviceinstaller executable (output of "which ideviceinstaller").
+     *
+     * @return Path of ideviceinstaller executable (empty string if ideviceinstaller is not found).
+     */
+    public static String getIdeviceinstallerPath() {
+        return getPath("ideviceinstaller.path", new Callable<String>() {
+            @Override
+            public String call() {
+                return OSUtils.runProcess("which ideviceinstaller").trim();
+            }
+        });
+    }
+
+    /**
+     * Get appium version (output of "appium -v").
+     *
+     * @return Appium version (empty string if appium is not found).
+     */
+    public static String getAppiumVersion() {
+        String appiumPath = getAppiumPath();
+        if (appiumPath.isEmpty()) {
+            // Do not cache error output.
+            return OSUtils.runProcess("appium -v ").trim();
+        }
+        return get("appium.version", appiumPath, new Callable<String>() {
+            @Override
+            public String call() {
+                return OSUtils.runProcess("appium -v ").trim();
+            }
+        });
+    }
+
+    /**
+     * Get xcrun version (output of "xcrun --version").
+     *
+     * @return Xcrun version.
+     */
+    public static String getXcrunVersion() {
+        return get("xcrun.version", "/usr/bin/xcrun", new Callable<String>() {
+            @Override
+            public String call() {
+                return OSUtils.runProcess("xcrun --version").trim();
+            }
+        });
+    }
+
+    /**
+     * Get value from cache or discover it.
+     * Cached value is valid while dependency file is not modified.
+     *
+     * @param key        Key of value.
+     * @param dependency Path to file or folder value depends on (for example tool binary).
+     * @param loader     Discover value if cached value is not valid.
+     * @return Value (empty string if not found).
+     */
+    public static String get(String key, String dependency, Callable<String> loader) {
+        return lookup(key, dependency, loader);
+    }
+
+    /**
+     * Get path from cache or discover it.
+     * Cached value is valid while file at this path exists and is not modified.
+     *
+     * @param key    Key of value.
+     * @param loader Discover path if cached value is not valid.
+     * @return Path (empty string if not found).
+     */
+    public static String getPath(String key, Callable<String> loader) {
+        return lookup(key, null, loader);
+    }
+
+    /**
+     * Get value from cache or discover it.
+     *
+     * @param key        Key of value.
+     * @param dependency Path to file or folder value depends on (if null value itself is path).
+     * @param loader     Discover value if cached value is not valid.
+     * @return Value (empty string if not found).
+     */
+    private static synchronized String lookup(String key, String dependency, Callable<String> loader) {
+        Properties properties = load();
+        String value = properties.getProperty(key);
+        if (value != null && isValid(key, dependency == null ? value : dependency)) {
+            LOGGER_BASE.debug("Use cached " + key + ": " + value);
+            return value;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            value = loader.call();
+        } catch (Exception e) {
+            LOGGER_BASE.error("Failed to get " + key + ": " + e.getMessage());
+            value = null;
+        }
+        LOGGER_BASE.debug("Discovered " + key + " in " + (System.currentTimeMillis() - startTime) + " ms: " + value);
+
+        // Do not cache failures, tool might be installed before next run.
+        boolean isValid = value != null && !value.isEmpty() && (dependency != null || new File(value).exists());
+        if (!isValid) {
+            properties.remove(key);
+            properties.remove(key + ".fingerprint");
+            return value == null ? "" : value;
+        }
+
+        put(key, dependency == null ? value : dependency, value);
+        return value;
+    }
+
+    /**
+     * Check if value is cached and its dependency is not modified.
+     *
+     * @param key        Key of value.
+     * @param dependency Path to file or folder value depends on.
+     * @return True if cached value is valid.
+     */
+    public static synchronized boolean isValid(String key, String dependency) {
+        Properties properties = load();
+        return properties.getProperty(key) != null
+                && getFingerprint(dependency).equals(properties.getProperty(key + ".fingerprint"));
+    }
+
+    /**
+     * Store value in cache.
+     *
+     * @param key        Key of value.
+     * @param dependency Path to file or folder value depends on.
+     * @param value      Value.
+     */
+    public static synchronized void put(String key, String dependency, String value) {
+        Properties properties = load();
+        properties.setProperty(key, value);
+        properties.setProperty(key + ".fingerprint", getFingerprint(dependency));
+        save(properties);
+    }
+
+    /**
+     * Get fingerprint of dependency and environment.
+     *
+     * @param dependency Path to file or folder (ignored if null).
+     * @return Fingerprint.
+     */
+    private static String getFingerprint(String dependency) {
+        long lastModified = dependency == null ? 0 : new File(dependency).lastModified();
+        return lastModified + ":" + String.valueOf(System.getenv("PATH")).hashCode()
+                + ":" + String.valueOf(System.getenv("ANDROID_HOME")).hashCode();
+    }
+
+    /**
+     * Load cache file (only once per JVM).
+     * Cache file with different version is ignored.
+     *
+     * @return Cached properties.
+     */
+    private static Properties load() {
+        if (HostEnvironment.cache != null) {
+            return HostEnvironment.cache;
+        }
+
+        Properties properties = new Properties();
+        File file = new File(DEFAULT_PATH);
+        if (file.exists()) {
+            try (InputStream input = new FileInputStream(file)) {
+                properties.load(input);
+            } catch (IOException e) {
+                LOGGER_BASE.error("Failed to read " + DEFAULT_PATH + ": " + e.getMessage());
+            }
+        }
+
+        if (!VERSION.equals(properties.getProperty(VERSION_KEY))) {
+            properties.clear();
+            properties.setProperty(VERSION_KEY, VERSION);
+        }
+        HostEnvironment.cache = properties;
+        return properties;
+    }
+
+    /**
+     * Save cache file.
+     *
+     * @param properties Cached properties.
+     */
+    private static void save(Properties properties) {
+        File file = new File(DEFAULT_PATH);
+        FileSystem.ensureFolderExists(file.getParent());
+        try (OutputStream output = new FileOutputStream(file)) {
+            properties.store(output, "Host environment cache");
+        } catch (IOException e) {
+            LOGGER_BASE.error("Failed to write " + DEFAULT_PATH + ": " + e.getMessage());
+        }
+    }
+}
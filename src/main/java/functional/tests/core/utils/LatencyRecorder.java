@@ -0,0 +1,57 @@
+package functional.tests.core.utils;
+
+import functional.tests.core.log.LoggerBase;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records count, total and max latency per operation (for example per find strategy).
+ */
+public class LatencyRecorder {
+
+    private final Map<String, long[]> latencies;
+
+    /**
+     * Init recorder.
+     */
+    public LatencyRecorder() {
+        this.latencies = new TreeMap<>();
+    }
+
+    /**
+     * Record latency of operation.
+     *
+     * @param operation Operation.
+     * @param time      Time in milliseconds.
+     */
+    public void record(String operation, long time) {
+        synchronized (this.latencies) {
+            long[] latency = this.latencies.get(operation);
+            if (latency == null) {
+                latency = new long[3];
+                this.latencies.put(operation, latency);
+            }
+            latency[0]++;
+            latency[1] += time;
+            latency[2] = Math.max(latency[2], time);
+        }
+    }
+
+    /**
+     * Log count, average and max latency per operation.
+     *
+     * @param logger Logger.
+     * @param prefix Prefix of operation in logs (for example "Find by ").
+     * @param unit   Name of counted operations in logs (for example "finds").
+     */
+    public void log(LoggerBase logger, String prefix, String unit) {
+        synchronized (this.latencies) {
+            for (Map.Entry<String, long[]> entry : this.latencies.entrySet()) {
+                long[] latency = entry.getValue();
+                logger.info(prefix + entry.getKey() + ": " + latency[0] + " " + unit + ", average " + (latency[1] / latency[0])
+                        + " ms, max " + latency[2] + " ms.");
+            }
+        }
+    }
+}
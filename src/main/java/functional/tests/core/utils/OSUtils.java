@@ -9,6 +9,7 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
@@ -102,6 +103,27 @@ public class OSUtils {
         }
     }
 
+    /**
+     * Start process and return without waiting for it.
+     * Error stream is redirected to output stream of the process.
+     *
+     * @param command Command to be executed.
+     * @return Started process.
+     * @throws IOException When fail to start process.
+     */
+    public static Process startProcess(String... command) throws IOException {
+        String[] allCommand;
+        if (Settings.os == OSType.Windows) {
+            allCommand = concat(WIN_RUNTIME, command);
+        } else {
+            allCommand = concat(OS_LINUX_RUNTIME, command);
+        }
+        ProcessBuilder pb = new ProcessBuilder(allCommand);
+        pb.redirectErrorStream(true);
+        LOGGER_BASE.debug("Start process: " + Arrays.toString(command));
+        return pb.start();
+    }
+
     /**
      * Execute command (start process).
      *